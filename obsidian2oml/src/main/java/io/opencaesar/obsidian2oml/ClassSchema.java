@@ -0,0 +1,132 @@
+/**
+ * 
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package io.opencaesar.obsidian2oml;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The field definitions of the classes of a vault, loaded from the front matter of the class
+ * notes generated by oml2obsidian (Metadata Menu fileClasses) at 'classes/prefix/Name.md'
+ */
+class ClassSchema {
+
+	private static final Pattern TAG = Pattern.compile("#([^\\s'\"()]+)");
+
+	/**
+	 * A field definition
+	 * 
+	 * @param name the name of the field
+	 * @param type the Metadata Menu type of the field (e.g., Input, Number, Select, File)
+	 * @param options the allowed values of a Select field (empty otherwise)
+	 * @param ranges the allowed tags of the notes linked by a File/MultiFile field (empty otherwise)
+	 */
+	record Field(String name, String type, Set<String> options, Set<String> ranges) {
+	}
+
+	private final Map<String, Map<String, Field>> classes;
+
+	private ClassSchema(Map<String, Map<String, Field>> classes) {
+		this.classes = classes;
+	}
+
+	/**
+	 * Loads the field definitions from the class notes in the given folder
+	 * 
+	 * @param classesPath the folder of the class notes
+	 * @return the loaded schema
+	 * @throws IOException if a class note cannot be read
+	 */
+	public static ClassSchema load(Path classesPath) throws IOException {
+		List<Path> paths;
+		try (Stream<Path> stream = Files.walk(classesPath)) {
+			paths = stream.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(".md")).collect(Collectors.toList());
+		}
+		var classes = new HashMap<String, Map<String, Field>>();
+		for (var path : paths) {
+			var relative = classesPath.relativize(path).toString().replace('\\', '/');
+			var tag = relative.substring(0, relative.length() - ".md".length());
+			classes.put(tag, loadFields(path));
+		}
+		return new ClassSchema(classes);
+	}
+
+	/**
+	 * @return the number of classes
+	 */
+	public int size() {
+		return classes.size();
+	}
+
+	/**
+	 * Returns the fields of the class with the given tag
+	 * 
+	 * @param tag the class tag (prefix/Name)
+	 * @return the fields by name, or null if there is no such class
+	 */
+	public Map<String, Field> getFields(String tag) {
+		return classes.get(tag);
+	}
+
+	private static Map<String, Field> loadFields(Path path) throws IOException {
+		var frontMatter = FrontMatter.read(path);
+		var fields = new HashMap<String, Field>();
+		if (frontMatter.get("fields") instanceof List) {
+			for (var object : (List<?>) frontMatter.get("fields")) {
+				if (object instanceof Map) {
+					var field = (Map<?, ?>) object;
+					var name = String.valueOf(field.get("name"));
+					var type = String.valueOf(field.get("type"));
+					Set<String> options = Collections.emptySet();
+					Set<String> ranges = Collections.emptySet();
+					if (field.get("options") instanceof Map) {
+						var fieldOptions = (Map<?, ?>) field.get("options");
+						if (fieldOptions.get("valuesList") instanceof Map) {
+							options = ((Map<?, ?>) fieldOptions.get("valuesList")).values().stream()
+									.map(String::valueOf)
+									.collect(Collectors.toCollection(LinkedHashSet::new));
+						}
+						if (fieldOptions.get("dvQueryString") != null) {
+							var matcher = TAG.matcher(String.valueOf(fieldOptions.get("dvQueryString")));
+							var tags = new ArrayList<String>();
+							while (matcher.find()) {
+								tags.add(matcher.group(1));
+							}
+							ranges = new LinkedHashSet<>(tags);
+						}
+					}
+					fields.put(name, new Field(name, type, options, ranges));
+				}
+			}
+		}
+		return fields;
+	}
+
+}
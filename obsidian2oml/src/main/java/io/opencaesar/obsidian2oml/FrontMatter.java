@@ -0,0 +1,78 @@
+/**
+ * 
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package io.opencaesar.obsidian2oml;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.error.YAMLException;
+
+/**
+ * Reads the YAML front matter of a note by streaming only the lines between its '---' delimiters
+ */
+class FrontMatter {
+
+	private static final String DELIMITER = "---";
+
+	private static final ThreadLocal<Yaml> YAML = ThreadLocal.withInitial(() -> new Yaml(new SafeConstructor(new LoaderOptions())));
+
+	private FrontMatter() {
+	}
+
+	/**
+	 * Reads the front matter of the given note
+	 * 
+	 * @param path the path of the note
+	 * @return the front matter properties (empty if the note has no front matter)
+	 * @throws IOException if the note cannot be read
+	 * @throws YAMLException if the front matter is not valid YAML
+	 */
+	public static Map<String, Object> read(Path path) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+			var line = reader.readLine();
+			if (line == null || !line.strip().equals(DELIMITER)) {
+				return Collections.emptyMap();
+			}
+			var yaml = new StringBuilder();
+			while ((line = reader.readLine()) != null) {
+				if (line.strip().equals(DELIMITER)) {
+					return parse(yaml.toString());
+				}
+				yaml.append(line).append('\n');
+			}
+			// unterminated front matter
+			return Collections.emptyMap();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> parse(String yaml) {
+		var object = YAML.get().load(yaml);
+		return (object instanceof Map) ? (Map<String, Object>) object : Collections.emptyMap();
+	}
+
+}
@@ -0,0 +1,144 @@
+/**
+ * 
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package io.opencaesar.obsidian2oml;
+
+import java.io.File;
+import java.nio.file.Path;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.Logger;
+
+import com.beust.jcommander.IParameterValidator;
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+
+/**
+ * An application to lint the notes of an Obsidian vault against the classes generated by oml2obsidian
+ */
+public class Obsidian2OmlApp {
+
+	@Parameter(
+			names = { "--input-vault-path", "-i" }, 
+			description = "Path of the input Obsidian vault folder (Required)", 
+			validateWith = InputFolderPath.class, 
+			required = true)
+	private String inputVaultPath;
+
+	@Parameter(
+			names = { "--input-classes-path", "-cls" }, 
+			description = "Path of the classes folder generated by oml2obsidian (Required, e.g. path/to/classes)", 
+			validateWith = InputFolderPath.class, 
+			required = true)
+	private String inputClassesPath;
+
+	@Parameter(
+			names = { "--input-metadata-path-filter", "-m" }, 
+			description = "Relative path within vault to metadata folder whose notes are not linted (Optional, default is 'metadata')", 
+			required = false)
+	private String metadataRelativePath = "metadata";
+
+	@Parameter(
+			names = { "--help", "-h" },
+			description = "Displays summary of options",
+			help = true)
+	private boolean help;
+
+	private final Logger LOGGER = LogManager.getLogger(Obsidian2OmlApp.class);
+
+    /**
+     * Main Method
+     * @param args Application arguments.
+     * @throws Exception Error
+     */
+    public static void main(final String... args) throws Exception {
+		final Obsidian2OmlApp app = new Obsidian2OmlApp();
+		final JCommander builder = JCommander.newBuilder().addObject(app).build();
+		builder.parse(args);
+		if (app.help) {
+			builder.usage();
+			return;
+		}
+		app.run();
+	}
+
+	/**
+	 * Creates a new Obsidian2OmlApp object
+	 */
+	public Obsidian2OmlApp() {
+	}
+	
+	private void run() throws Exception {
+		LOGGER.info("=================================================================");
+		LOGGER.info("                        S T A R T");
+		LOGGER.info("                      Obsidian to Oml "+getAppVersion());
+		LOGGER.info("=================================================================");
+		LOGGER.info("Input vault path= " + inputVaultPath);
+		LOGGER.info("Input classes path= " + inputClassesPath);
+		LOGGER.info("Metadata relative path= " + metadataRelativePath);
+
+		// load the field definitions of the classes
+		final Path vaultPath = new File(inputVaultPath).getCanonicalFile().toPath();
+		final ClassSchema schema = ClassSchema.load(new File(inputClassesPath).getCanonicalFile().toPath());
+		LOGGER.info("Loaded "+schema.size()+" classes");
+
+		// lint the notes of the vault
+		final long start = System.currentTimeMillis();
+		final VaultLinter linter = new VaultLinter(vaultPath, vaultPath.resolve(metadataRelativePath), schema);
+		final var problems = linter.lint();
+		problems.forEach(LOGGER::error);
+		LOGGER.info("Linted "+linter.getNoteCount()+" notes in "+(System.currentTimeMillis()-start)+" ms ("+problems.size()+" problems)");
+		if (!problems.isEmpty()) {
+			throw new IllegalStateException("The vault has "+problems.size()+" problems with notes that do not conform to their classes");
+		}
+
+		LOGGER.info("=================================================================");
+		LOGGER.info("                          E N D");
+		LOGGER.info("=================================================================");
+	}
+
+	/**
+	 * Get application version id from properties file.
+	 * 
+	 * @return version string from build.properties or UNKNOWN
+	 */
+	private String getAppVersion() {
+    	var version = this.getClass().getPackage().getImplementationVersion();
+    	return (version != null) ? version : "<SNAPSHOT>";
+	}
+
+	/**
+	 * The validator of the input folder paths 
+	 */
+	public static class InputFolderPath implements IParameterValidator {
+		/**
+		 * Creates a new InputFolderPath object
+		 */
+		public InputFolderPath() {
+		}
+		@Override
+		public void validate(final String name, final String value) throws ParameterException {
+			final File file = new File(value);
+			if (!file.isDirectory()) {
+				throw new ParameterException((("Parameter " + name) + " should be a valid folder path"));
+			}
+		}
+	}
+
+}
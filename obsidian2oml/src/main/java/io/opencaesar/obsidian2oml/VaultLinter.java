@@ -0,0 +1,342 @@
+/**
+ * 
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package io.opencaesar.obsidian2oml;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.yaml.snakeyaml.error.YAMLException;
+
+/**
+ * Checks the front matter of the notes of a vault against the field definitions of their classes.
+ * Notes are processed in parallel and only their front matter is read.
+ */
+class VaultLinter {
+
+	private static final Pattern LINK = Pattern.compile("\\[\\[([^\\]]+)\\]\\]");
+
+	private final Path vaultPath;
+	private final Path metadataPath;
+	private final ClassSchema schema;
+	// the tags of the notes by their vault-relative path without '.md'
+	private final Map<String, Set<String>> noteTags = new ConcurrentHashMap<>();
+	// the vault-relative paths of the notes by their name
+	private final Map<String, List<String>> notePaths = new HashMap<>();
+	private int noteCount;
+
+	/**
+	 * Creates a new VaultLinter object
+	 * 
+	 * @param vaultPath the path of the vault
+	 * @param metadataPath the path of the metadata folder (its notes are not linted)
+	 * @param schema the field definitions of the classes
+	 */
+	public VaultLinter(Path vaultPath, Path metadataPath, ClassSchema schema) {
+		this.vaultPath = vaultPath;
+		this.metadataPath = metadataPath;
+		this.schema = schema;
+	}
+
+	/**
+	 * Lints the notes of the vault
+	 * 
+	 * @return the problems found sorted by note path (empty if none)
+	 * @throws IOException if the vault cannot be walked
+	 */
+	public List<String> lint() throws IOException {
+		List<Path> notes;
+		try (Stream<Path> stream = Files.walk(vaultPath)) {
+			notes = stream
+					.filter(p -> !p.startsWith(metadataPath))
+					.filter(p -> !isHidden(vaultPath.relativize(p)))
+					.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(".md"))
+					.collect(Collectors.toList());
+		}
+
+		// first pass: index the tags of every note by its path (the target of a link)
+		noteTags.clear();
+		notePaths.clear();
+		var frontMatters = new ConcurrentHashMap<Path, Map<String, Object>>();
+		var problems = Collections.synchronizedList(new ArrayList<String>());
+		notes.parallelStream().forEach(note -> {
+			try {
+				var frontMatter = FrontMatter.read(note);
+				var tags = getTags(frontMatter);
+				noteTags.put(getPath(note), tags);
+				if (!tags.isEmpty()) {
+					frontMatters.put(note, frontMatter);
+				}
+			} catch (YAMLException e) {
+				problems.add(relativize(note)+": invalid front matter ("+e.getMessage().lines().findFirst().orElse("")+")");
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+		this.noteCount = notes.size();
+		for (var path : new TreeSet<>(noteTags.keySet())) {
+			notePaths.computeIfAbsent(path.substring(path.lastIndexOf('/') + 1), k -> new ArrayList<>()).add(path);
+		}
+
+		// second pass: check the fields of every tagged note against its classes
+		frontMatters.entrySet().parallelStream().forEach(e -> problems.addAll(lint(e.getKey(), e.getValue())));
+
+		return problems.stream().sorted().collect(Collectors.toList());
+	}
+
+	/**
+	 * @return the number of notes walked by the last call to {@link #lint()}
+	 */
+	public int getNoteCount() {
+		return noteCount;
+	}
+
+	private List<String> lint(Path note, Map<String, Object> frontMatter) {
+		var problems = new ArrayList<String>();
+		for (var tag : getTags(frontMatter)) {
+			var fields = schema.getFields(tag);
+			if (fields == null) {
+				continue;
+			}
+			for (var entry : frontMatter.entrySet()) {
+				var field = fields.get(entry.getKey());
+				if (field != null && entry.getValue() != null) {
+					var problem = check(field, entry.getValue());
+					if (problem != null) {
+						problems.add(relativize(note)+": field '"+field.name()+"' of class '"+tag+"' "+problem);
+					}
+				}
+			}
+		}
+		return problems;
+	}
+
+	private String check(ClassSchema.Field field, Object value) {
+		switch (field.type()) {
+			case "File":
+			case "MultiFile":
+				var links = getLinks(value);
+				if (links == null) {
+					return "should have links to notes but has "+format(value);
+				}
+				if (field.type().equals("File") && links.size() > 1) {
+					return "should have a single link but has "+links.size();
+				}
+				for (var link : links) {
+					var paths = resolve(link);
+					if (paths.isEmpty()) {
+						return "has a broken link to '"+link+"'";
+					}
+					if (paths.size() > 1) {
+						return "has an ambiguous link to '"+link+"' (one of "+paths+")";
+					}
+					var tags = noteTags.get(paths.get(0));
+					if (!field.ranges().isEmpty() && Collections.disjoint(tags, field.ranges())) {
+						return "has a link to '"+link+"' which is not one of "+field.ranges();
+					}
+				}
+				return null;
+			default:
+				// non-functional scalar fields hold lists of values
+				for (var v : (value instanceof Collection) ? (Collection<?>) value : List.of(value)) {
+					if (v != null && !isValid(field, v)) {
+						return "has invalid "+field.type()+" value "+format(v);
+					}
+				}
+				return null;
+		}
+	}
+
+	private static boolean isValid(ClassSchema.Field field, Object value) {
+		switch (field.type()) {
+			case "Boolean":
+				return value instanceof Boolean;
+			case "Number":
+				if (value instanceof Number) {
+					return true;
+				}
+				try {
+					Double.parseDouble(value.toString());
+					return true;
+				} catch (NumberFormatException e) {
+					return false;
+				}
+			case "DateTime":
+				return value instanceof Date || isDateTime(value.toString());
+			case "Select":
+				return field.options().contains(value.toString());
+			default:
+				return !(value instanceof Map) && !(value instanceof Collection);
+		}
+	}
+
+	private static boolean isDateTime(String value) {
+		for (var parser : List.<Consumer<String>>of(OffsetDateTime::parse, LocalDateTime::parse, LocalDate::parse)) {
+			try {
+				parser.accept(value);
+				return true;
+			} catch (DateTimeParseException e) {
+				// try the next format
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the names of the notes linked by the given value
+	 * 
+	 * @param value a front matter value
+	 * @return the linked note names, or null if the value is not made of links
+	 */
+	private static List<String> getLinks(Object value) {
+		var links = new ArrayList<String>();
+		if (value instanceof String) {
+			var matcher = LINK.matcher((String) value);
+			if (!matcher.matches()) {
+				return null;
+			}
+			links.add(getLinkTarget(matcher.group(1)));
+		} else if (isUnquotedLink(value)) {
+			links.add(getLinkTarget((String) ((List<?>) ((List<?>) value).get(0)).get(0)));
+		} else if (value instanceof List) {
+			for (var v : (List<?>) value) {
+				var l = getLinks(v);
+				if (l == null) {
+					return null;
+				}
+				links.addAll(l);
+			}
+		} else {
+			return null;
+		}
+		return links;
+	}
+
+	/**
+	 * An unquoted link [[name]] is parsed by YAML as a list containing a list with the name
+	 */
+	private static boolean isUnquotedLink(Object value) {
+		if (value instanceof List && ((List<?>) value).size() == 1) {
+			var inner = ((List<?>) value).get(0);
+			return inner instanceof List && ((List<?>) inner).size() == 1 && ((List<?>) inner).get(0) instanceof String;
+		}
+		return false;
+	}
+
+	/**
+	 * Gets the notes a link target may resolve to: the note at that path from the vault root if any,
+	 * or else the notes whose path ends with it (e.g., all notes of that name for a bare name)
+	 * 
+	 * @param target the link target (a path without '.md')
+	 * @return the vault-relative paths of the matching notes
+	 */
+	private List<String> resolve(String target) {
+		if (noteTags.containsKey(target)) {
+			return List.of(target);
+		}
+		var name = target.substring(target.lastIndexOf('/') + 1);
+		return notePaths.getOrDefault(name, List.of()).stream()
+				.filter(p -> p.endsWith("/"+target))
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Gets the note path of a link by removing its alias, heading and extension
+	 */
+	private static String getLinkTarget(String link) {
+		var target = link;
+		if (target.contains("|")) {
+			target = target.substring(0, target.indexOf('|'));
+		}
+		if (target.contains("#")) {
+			target = target.substring(0, target.indexOf('#'));
+		}
+		target = target.strip();
+		if (target.startsWith("/")) {
+			target = target.substring(1);
+		}
+		if (target.endsWith(".md")) {
+			target = target.substring(0, target.length() - ".md".length());
+		}
+		return target.strip();
+	}
+
+	private static Set<String> getTags(Map<String, Object> frontMatter) {
+		var value = frontMatter.get("tags");
+		Collection<?> values;
+		if (value instanceof Collection) {
+			values = (Collection<?>) value;
+		} else if (value != null) {
+			values = List.of(value.toString().split("[,\\s]+"));
+		} else {
+			return Collections.emptySet();
+		}
+		return values.stream()
+				.filter(i -> i != null)
+				.map(i -> i.toString().strip())
+				.map(i -> i.startsWith("#") ? i.substring(1) : i)
+				.filter(i -> !i.isEmpty())
+				.collect(Collectors.toSet());
+	}
+
+	/**
+	 * Whether a path relative to the vault is in (or is) a hidden folder or file (e.g., .obsidian, .trash)
+	 */
+	private static boolean isHidden(Path relativePath) {
+		for (var segment : relativePath) {
+			if (segment.toString().startsWith(".")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private String getPath(Path note) {
+		var path = relativize(note);
+		return path.substring(0, path.length() - ".md".length());
+	}
+
+	private static String format(Object value) {
+		return (value instanceof String) ? "'"+value+"'" : String.valueOf(value);
+	}
+
+	private String relativize(Path note) {
+		return vaultPath.relativize(note).toString().replace('\\', '/');
+	}
+
+}
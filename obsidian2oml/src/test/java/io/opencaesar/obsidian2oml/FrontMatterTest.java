@@ -0,0 +1,102 @@
+/**
+ * 
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package io.opencaesar.obsidian2oml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.yaml.snakeyaml.error.YAMLException;
+
+public class FrontMatterTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Map<String, Object> read(String content) throws IOException {
+		var path = folder.newFile().toPath();
+		Files.writeString(path, content, StandardCharsets.UTF_8);
+		return FrontMatter.read(path);
+	}
+
+	@Test
+	public void testRead() throws IOException {
+		var frontMatter = read("---\ntags:\n  - ex/Person\nage: 30\nalive: true\n---\nbody\n---\nname: other\n---\n");
+		assertEquals(Map.of("tags", List.of("ex/Person"), "age", 30, "alive", true), frontMatter);
+	}
+
+	@Test
+	public void testReadCrlf() throws IOException {
+		assertEquals(Map.of("name", "a"), read("--- \r\nname: a\r\n---\r\nbody"));
+	}
+
+	@Test
+	public void testNoFrontMatter() throws IOException {
+		assertEquals(Map.of(), read(""));
+		assertEquals(Map.of(), read("# Title\n---\nname: a\n---\n"));
+		assertEquals(Map.of(), read("---\n---\n"));
+		assertEquals(Map.of(), read("---\njust text\n---\n"));
+	}
+
+	@Test
+	public void testUnterminatedFrontMatter() throws IOException {
+		assertEquals(Map.of(), read("---\nname: a\n"));
+	}
+
+	@Test
+	public void testUnquotedLink() throws IOException {
+		assertEquals(Map.of("friend", List.of(List.of("Bob"))), read("---\nfriend: [[Bob]]\n---\n"));
+	}
+
+	@Test
+	public void testInvalidYaml() throws IOException {
+		try {
+			read("---\nbad: [\n---\n");
+			fail("expected the front matter to be invalid");
+		} catch (YAMLException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains("expected the node content"));
+		}
+	}
+
+	@Test
+	public void testDoesNotConstructArbitraryTypes() throws IOException {
+		try {
+			read("---\nx: !!java.io.File [\"/tmp\"]\n---\n");
+			fail("expected a global tag to be rejected");
+		} catch (YAMLException e) {
+			// expected
+		}
+	}
+
+	static Path write(Path path, String content) throws IOException {
+		Files.createDirectories(path.getParent());
+		return Files.writeString(path, content, StandardCharsets.UTF_8);
+	}
+
+}
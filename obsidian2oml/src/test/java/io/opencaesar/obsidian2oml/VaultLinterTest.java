@@ -0,0 +1,192 @@
+/**
+ * 
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package io.opencaesar.obsidian2oml;
+
+import static io.opencaesar.obsidian2oml.FrontMatterTest.write;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class VaultLinterTest {
+
+	private static final String PERSON = "---\n"
+			+ "fields:\n"
+			+ "- name: age\n"
+			+ "  type: Number\n"
+			+ "- name: kind\n"
+			+ "  type: Select\n"
+			+ "  options:\n"
+			+ "    sourceType: ValuesList\n"
+			+ "    valuesList:\n"
+			+ "      \"1\": Big\n"
+			+ "      \"2\": Small\n"
+			+ "- name: born\n"
+			+ "  type: DateTime\n"
+			+ "- name: alive\n"
+			+ "  type: Boolean\n"
+			+ "- name: friend\n"
+			+ "  type: File\n"
+			+ "  options:\n"
+			+ "    dvQueryString: \"dv.pages('#ex/Person or #ex/Robot and !\\\"metadata\\\"')\"\n"
+			+ "- name: pets\n"
+			+ "  type: MultiFile\n"
+			+ "  options:\n"
+			+ "    dvQueryString: \"dv.pages('#ex/Pet and !\\\"metadata\\\"')\"\n"
+			+ "---\n";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path vault;
+	private Path metadata;
+
+	@Before
+	public void setUp() throws IOException {
+		vault = folder.getRoot().toPath();
+		metadata = vault.resolve("metadata");
+		write(metadata.resolve("classes/ex/Person.md"), PERSON);
+		write(metadata.resolve("classes/ex/Pet.md"), "---\nfields: []\n---\n");
+		write(vault.resolve("pets/Rex.md"), "---\ntags: \"#ex/Pet\"\n---\n");
+	}
+
+	private List<String> lint() throws IOException {
+		return new VaultLinter(vault, metadata, ClassSchema.load(metadata.resolve("classes"))).lint();
+	}
+
+	@Test
+	public void testSchema() throws IOException {
+		var schema = ClassSchema.load(metadata.resolve("classes"));
+		assertEquals(2, schema.size());
+		var fields = schema.getFields("ex/Person");
+		assertEquals(Set.of("Big", "Small"), fields.get("kind").options());
+		assertEquals(List.of("ex/Person", "ex/Robot"), List.copyOf(fields.get("friend").ranges()));
+		assertEquals(Set.of("ex/Pet"), fields.get("pets").ranges());
+		assertNull(schema.getFields("ex/Robot"));
+	}
+
+	@Test
+	public void testConformingNotes() throws IOException {
+		write(vault.resolve("people/Alice.md"), "---\n"
+				+ "tags:\n  - ex/Person\n"
+				+ "age: 30\nkind: Big\nborn: 2020-01-02\nalive: true\n"
+				+ "friend: [[Bob]]\n"
+				+ "pets:\n  - \"[[pets/Rex.md|my dog]]\"\n"
+				+ "---\nbody\n");
+		write(vault.resolve("people/Bob.md"), "---\n"
+				+ "tags: [ex/Person]\n"
+				+ "age: \"4.5\"\nborn: \"2020-01-02T10:00:00Z\"\nfriend: \"[[Alice#Heading]]\"\n"
+				+ "unknown: whatever\n"
+				+ "---\n");
+		var linter = new VaultLinter(vault, metadata, ClassSchema.load(metadata.resolve("classes")));
+		assertEquals(List.of(), linter.lint());
+		assertEquals(3, linter.getNoteCount());
+	}
+
+	@Test
+	public void testInvalidValues() throws IOException {
+		write(vault.resolve("Bob.md"), "---\n"
+				+ "tags: [ex/Person]\n"
+				+ "age: old\nkind: Huge\nborn: yesterday\nalive: maybe\n"
+				+ "---\n");
+		assertEquals(List.of(
+				"Bob.md: field 'age' of class 'ex/Person' has invalid Number value 'old'",
+				"Bob.md: field 'alive' of class 'ex/Person' has invalid Boolean value 'maybe'",
+				"Bob.md: field 'born' of class 'ex/Person' has invalid DateTime value 'yesterday'",
+				"Bob.md: field 'kind' of class 'ex/Person' has invalid Select value 'Huge'"), lint());
+	}
+
+	@Test
+	public void testInvalidLinks() throws IOException {
+		write(vault.resolve("Bob.md"), "---\n"
+				+ "tags: [ex/Person]\n"
+				+ "friend: \"[[Rex]]\"\n"
+				+ "pets: [[Nobody]]\n"
+				+ "---\n");
+		write(vault.resolve("Carol.md"), "---\n"
+				+ "tags: [ex/Person]\n"
+				+ "friend:\n  - \"[[Bob]]\"\n  - \"[[Carol]]\"\n"
+				+ "pets: Rex\n"
+				+ "---\n");
+		assertEquals(List.of(
+				"Bob.md: field 'friend' of class 'ex/Person' has a link to 'Rex' which is not one of [ex/Person, ex/Robot]",
+				"Bob.md: field 'pets' of class 'ex/Person' has a broken link to 'Nobody'",
+				"Carol.md: field 'friend' of class 'ex/Person' should have a single link but has 2",
+				"Carol.md: field 'pets' of class 'ex/Person' should have links to notes but has 'Rex'"), lint());
+	}
+
+	@Test
+	public void testLinksToSameNamedNotes() throws IOException {
+		write(vault.resolve("a/X.md"), "---\ntags: [ex/Pet]\n---\n");
+		write(vault.resolve("b/X.md"), "---\ntags: [ex/Person]\n---\n");
+		write(vault.resolve("Ann.md"), "---\n"
+				+ "tags: [ex/Person]\n"
+				+ "friend: \"[[b/X]]\"\n"
+				+ "pets:\n  - \"[[a/X]]\"\n  - \"[[/a/X.md|x]]\"\n"
+				+ "---\n");
+		write(vault.resolve("Ben.md"), "---\n"
+				+ "tags: [ex/Person]\n"
+				+ "friend: \"[[a/X]]\"\n"
+				+ "pets: \"[[c/X]]\"\n"
+				+ "---\n");
+		write(vault.resolve("Cid.md"), "---\n"
+				+ "tags: [ex/Person]\n"
+				+ "friend: \"[[X]]\"\n"
+				+ "pets: \"[[Rex]]\"\n"
+				+ "---\n");
+		assertEquals(List.of(
+				"Ben.md: field 'friend' of class 'ex/Person' has a link to 'a/X' which is not one of [ex/Person, ex/Robot]",
+				"Ben.md: field 'pets' of class 'ex/Person' has a broken link to 'c/X'",
+				"Cid.md: field 'friend' of class 'ex/Person' has an ambiguous link to 'X' (one of [a/X, b/X])"), lint());
+	}
+
+	@Test
+	public void testInvalidFrontMatter() throws IOException {
+		write(vault.resolve("Bad.md"), "---\nbad: [\n---\n");
+		var problems = lint();
+		assertEquals(1, problems.size());
+		assertTrue(problems.get(0), problems.get(0).startsWith("Bad.md: invalid front matter ("));
+	}
+
+	@Test
+	public void testSkipsMetadataAndHiddenFolders() throws IOException {
+		write(vault.resolve(".obsidian/Bad.md"), "---\nbad: [\n---\n");
+		write(vault.resolve(".trash/Bob.md"), "---\ntags: [ex/Person]\nage: old\n---\n");
+		write(metadata.resolve("templates/ex/Person.md"), "---\ntags: [ex/Person]\nage: \"{{age}}\"\n---\n");
+		var linter = new VaultLinter(vault, metadata, ClassSchema.load(metadata.resolve("classes")));
+		assertEquals(List.of(), linter.lint());
+		assertEquals(1, linter.getNoteCount());
+	}
+
+	@Test
+	public void testUnknownClassesAreIgnored() throws IOException {
+		write(vault.resolve("R2.md"), "---\ntags: [ex/Robot]\nage: old\n---\n");
+		assertEquals(List.of(), lint());
+	}
+
+}
@@ -19,67 +19,83 @@
 package io.opencaesar.oml2obsidian;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.inject.Inject;
 
 import org.eclipse.emf.common.util.URI;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.GradleException;
-import org.gradle.api.Task;
 import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.provider.Property;
+import org.gradle.api.provider.ProviderFactory;
+import org.gradle.api.provider.ValueSource;
+import org.gradle.api.provider.ValueSourceParameters;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.Console;
 import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.InputFile;
 import org.gradle.api.tasks.InputFiles;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Optional;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
 import org.gradle.api.tasks.TaskAction;
 import org.gradle.api.tasks.TaskExecutionException;
-import org.gradle.work.Incremental;
-import org.gradle.work.InputChanges;
 
-import groovy.lang.Closure;
 import io.opencaesar.oml.util.OmlResolve;
 
 /**
  * A gradle task to invoke the Oml2Owl tool 
  */
+@CacheableTask
 public abstract class Oml2ObsidianTask extends DefaultTask {
 	
 	/**
 	 * Creates a new Oml2ObsidianTask object
 	 */
 	public Oml2ObsidianTask() {
-		getOutputs().upToDateWhen(task -> true); // since user could change template and class files
+		getInputFiles().from(getProviders().of(InputFilesSource.class, spec -> 
+			spec.getParameters().getInputCatalogPath().set(getInputCatalogPath())));
+		getValidationCachePath().convention(getProject().getLayout().getBuildDirectory()
+			.dir("oml2obsidian/validation").map(i -> i.getAsFile()));
+		getGeneratedContentPath().convention(getProject().getLayout().getBuildDirectory()
+			.file("oml2obsidian/"+getName()+"/generated-content.txt").map(i -> i.getAsFile()));
+		getUserContent().set(getProviders().of(UserContentSource.class, spec -> {
+			spec.getParameters().getOutputClassesPath().set(getOutputClassesPath());
+			spec.getParameters().getOutputTemplatesPath().set(getOutputTemplatesPath());
+			spec.getParameters().getOutputInstancesPath().set(getOutputInstancesPath());
+			spec.getParameters().getGeneratedContentPath().set(getGeneratedContentPath());
+		}));
 	}
 
-    @SuppressWarnings("rawtypes")
-	@Override
-    public Task configure(Closure closure) {
-        Task task = super.configure(closure);
-		try {
-			// calculate input files
-			final URI inputCatalogUri = URI.createFileURI(getInputCatalogPath().get().getAbsolutePath());
-			Collection<File> inputFiles = new ArrayList<>();
-			inputFiles.addAll(OmlResolve.resolveOmlFileUris(inputCatalogUri).stream()
-					.map(i -> new File(i.toFileString()))
-					.collect(Collectors.toList()));
-			inputFiles.add(new File(inputCatalogUri.toFileString()));
-			getInputFiles().setFrom(inputFiles);
-		} catch (Exception e) {
-			throw new GradleException(e.getLocalizedMessage(), e);
-		}
-        return task;
-    }
+	/**
+	 * The provider factory used to lazily resolve the input files
+	 * 
+	 * @return ProviderFactory
+	 */
+	@Inject
+	protected abstract ProviderFactory getProviders();
 
 	/**
-	 * Path of the input Oml catalog.
+	 * Path of the input Oml catalog (its content is tracked by the input files).
 	 * 
 	 * @return File Property
 	 */
-	@Input
+	@Internal
     public abstract Property<File> getInputCatalogPath();
 
 	/**
@@ -95,7 +111,7 @@ public abstract class Oml2ObsidianTask extends DefaultTask {
 	 * 
 	 * @return String Property
 	 */
-    @Input
+    @OutputDirectory
     public abstract Property<File> getOutputClassesPath();
 
 	/**
@@ -103,25 +119,86 @@ public abstract class Oml2ObsidianTask extends DefaultTask {
 	 * 
 	 * @return String Property
 	 */
-    @Input
+    @OutputDirectory
     public abstract Property<File> getOutputTemplatesPath();
 
 	/**
-	 * Relative path of the metadata folder in the vault.
+	 * IRI of the input OML description (or description bundle) whose instances get notes
+	 * 
+	 * @return String Property
+	 */
+	@Optional
+	@Input
+    public abstract Property<String> getInputDescriptionIri();
+
+	/**
+	 * Path of the output instances folder
 	 * 
 	 * @return File Property
 	 */
 	@Optional
+	@OutputDirectory
+    public abstract Property<File> getOutputInstancesPath();
+
+	/**
+	 * Relative path of the metadata folder in the vault (e.g., 'metadata').
+	 * 
+	 * @return String Property
+	 */
+	@Optional
 	@Input
-    public abstract Property<File> getMetadataRelativePath();
+    public abstract Property<String> getMetadataRelativePath();
+
+	/**
+	 * Path of a template file for class notes
+	 * 
+	 * @return File Property
+	 */
+	@Optional
+	@InputFile
+	@PathSensitive(PathSensitivity.NONE)
+    public abstract Property<File> getInputClassTemplatePath();
+
+	/**
+	 * Path of a template file for template notes
+	 * 
+	 * @return File Property
+	 */
+	@Optional
+	@InputFile
+	@PathSensitive(PathSensitivity.NONE)
+    public abstract Property<File> getInputTemplateTemplatePath();
+
+	/**
+	 * Path of the folder where validation results are cached (default is build/oml2obsidian/validation)
+	 * 
+	 * @return File Property
+	 */
+	@Internal
+    public abstract Property<File> getValidationCachePath();
+
+    /**
+	 * The low memory flag (internal since it does not change the generated notes)
+	 * 
+	 * @return Boolean Property
+	 */
+    @Internal
+    public abstract Property<Boolean> getLowMemory();
+
+    /**
+	 * The quiet flag (only the summary is logged)
+	 * 
+	 * @return Boolean Property
+	 */
+    @Console
+    public abstract Property<Boolean> getQuiet();
 
     /**
 	 * The debug flag
 	 * 
 	 * @return Boolean Property
 	 */
-    @Optional
-    @Input
+    @Console
     public abstract Property<Boolean> getDebug();
 
 	/**
@@ -129,18 +206,215 @@ public abstract class Oml2ObsidianTask extends DefaultTask {
 	 * 
 	 * @return ConfigurableFileCollection
 	 */
-	@Incremental
 	@InputFiles
+	@PathSensitive(PathSensitivity.RELATIVE)
 	protected abstract ConfigurableFileCollection getInputFiles();
 
+	/**
+	 * Path of the manifest of the content created by the task in the output folders, i.e., the
+	 * hashes of the bodies of the notes it created (default is build/oml2obsidian/&lt;task name&gt;/generated-content.txt)
+	 * 
+	 * @return File Property
+	 */
+	@OutputFile
+    public abstract Property<File> getGeneratedContentPath();
+
+	/**
+	 * A fingerprint of the user-owned content of the output folders (i.e., everything but the
+	 * generated front matter of notes) that differs from the content created by the task. It makes
+	 * edits to note bodies part of the cache key, so such edits are never overwritten by outputs
+	 * restored from the build cache, while the bodies created by the task do not make the next
+	 * build out of date.
+	 * 
+	 * @return String Property
+	 */
+	@Input
+	protected abstract Property<String> getUserContent();
+
 	
+	/**
+	 * A value source that resolves the input Oml files referenced by the input Oml catalog.
+	 * It is only evaluated when the task executes or its inputs are fingerprinted.
+	 */
+	public static abstract class InputFilesSource implements ValueSource<List<File>, InputFilesSource.Parameters> {
+
+		/**
+		 * The parameters of the value source
+		 */
+		public interface Parameters extends ValueSourceParameters {
+			/**
+			 * Path of the input Oml catalog.
+			 * 
+			 * @return File Property
+			 */
+			Property<File> getInputCatalogPath();
+		}
+
+		/**
+		 * Creates a new InputFilesSource object
+		 */
+		public InputFilesSource() {
+		}
+
+		@Override
+		public List<File> obtain() {
+			try {
+				// calculate input files
+				final URI inputCatalogUri = URI.createFileURI(getParameters().getInputCatalogPath().get().getAbsolutePath());
+				List<File> inputFiles = new ArrayList<>();
+				inputFiles.addAll(OmlResolve.resolveOmlFileUris(inputCatalogUri).stream()
+						.map(i -> new File(i.toFileString()))
+						.collect(Collectors.toList()));
+				inputFiles.add(new File(inputCatalogUri.toFileString()));
+				return inputFiles;
+			} catch (Exception e) {
+				throw new GradleException(e.getLocalizedMessage(), e);
+			}
+		}
+	}
+
+	/**
+	 * A value source that fingerprints the user-owned content of the output folders, i.e., the
+	 * bodies of notes (after their front matter) and any other files they contain, that differs
+	 * from the content created by the task.
+	 */
+	public static abstract class UserContentSource implements ValueSource<String, UserContentSource.Parameters> {
+
+		/**
+		 * The parameters of the value source
+		 */
+		public interface Parameters extends ValueSourceParameters {
+			/**
+			 * Path of the output classes folder
+			 * 
+			 * @return File Property
+			 */
+			Property<File> getOutputClassesPath();
+
+			/**
+			 * Path of the output templates folder
+			 * 
+			 * @return File Property
+			 */
+			Property<File> getOutputTemplatesPath();
+
+			/**
+			 * Path of the output instances folder
+			 * 
+			 * @return File Property
+			 */
+			Property<File> getOutputInstancesPath();
+
+			/**
+			 * Path of the manifest of the content created by the task
+			 * 
+			 * @return File Property
+			 */
+			Property<File> getGeneratedContentPath();
+		}
+
+		/**
+		 * Creates a new UserContentSource object
+		 */
+		public UserContentSource() {
+		}
+
+		@Override
+		public String obtain() {
+			try {
+				final Map<String, String> generated = readContentManifest(getParameters().getGeneratedContentPath().get());
+				final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+				final var folders = List.of(getParameters().getOutputClassesPath(), getParameters().getOutputTemplatesPath(), getParameters().getOutputInstancesPath());
+				for (Map.Entry<String, String> entry : hashContent(folders).entrySet()) {
+					if (!entry.getValue().equals(generated.get(entry.getKey()))) {
+						digest.update((entry.getKey()+"\t"+entry.getValue()+"\n").getBytes(StandardCharsets.UTF_8));
+					}
+				}
+				return HexFormat.of().formatHex(digest.digest());
+			} catch (Exception e) {
+				throw new GradleException(e.getLocalizedMessage(), e);
+			}
+		}
+	}
+
+	/**
+	 * Hashes the user-owned content of the files of the given folders, i.e., the bodies of notes
+	 * (after their front matter) and the bytes of any other file
+	 * 
+	 * @param folders the folders
+	 * @return the content hashes by 'folder name/relative path' (sorted)
+	 * @throws Exception if a file cannot be read
+	 */
+	static SortedMap<String, String> hashContent(List<Property<File>> folders) throws Exception {
+		final SortedMap<String, String> hashes = new TreeMap<>();
+		for (Property<File> folder : folders) {
+			if (folder.isPresent() && folder.get().isDirectory()) {
+				final Path root = folder.get().toPath();
+				List<Path> paths;
+				try (Stream<Path> stream = Files.walk(root)) {
+					paths = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+				}
+				for (Path path : paths) {
+					final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+					if (path.toString().endsWith(".md")) {
+						String markdown = Files.readString(path, StandardCharsets.UTF_8);
+						digest.update(Oml2ObsidianApp.extractContentAfterFrontMatter(markdown).getBytes(StandardCharsets.UTF_8));
+					} else {
+						digest.update(Files.readAllBytes(path));
+					}
+					final String key = root.getFileName()+"/"+root.relativize(path).toString().replace('\\', '/');
+					hashes.put(key, HexFormat.of().formatHex(digest.digest()));
+				}
+			}
+		}
+		return hashes;
+	}
+
+	private static Map<String, String> readContentManifest(File file) throws Exception {
+		final Map<String, String> manifest = new TreeMap<>();
+		if (file.isFile()) {
+			for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+				int tab = line.lastIndexOf('\t');
+				if (tab > 0) {
+					manifest.put(line.substring(0, tab), line.substring(tab + 1));
+				}
+			}
+		}
+		return manifest;
+	}
+
+	/**
+	 * Updates the manifest of the content created by the task: the files that did not exist before
+	 * the execution were created by it, while the others keep their previous entry (if any)
+	 * 
+	 * @param before the content hashes before the execution
+	 * @throws Exception if a file cannot be read or written
+	 */
+	private void writeGeneratedContent(Map<String, String> before) throws Exception {
+		final File file = getGeneratedContentPath().get();
+		final Map<String, String> previous = readContentManifest(file);
+		final StringBuilder s = new StringBuilder();
+		for (Map.Entry<String, String> entry : hashContent(getOutputFolders()).entrySet()) {
+			final String hash = before.containsKey(entry.getKey()) ? previous.get(entry.getKey()) : entry.getValue();
+			if (hash != null) {
+				s.append(entry.getKey()+"\t"+hash+"\n");
+			}
+		}
+		file.getParentFile().mkdirs();
+		Files.writeString(file.toPath(), s.toString(), StandardCharsets.UTF_8);
+	}
+
+	private List<Property<File>> getOutputFolders() {
+		return List.of(getOutputClassesPath(), getOutputTemplatesPath(), getOutputInstancesPath());
+	}
+
     /**
-     * The gradle task action logic.
-     * 
-     * @param inputChanges The input changes
+     * The gradle task action logic. It does not take the input changes, since Gradle would then
+     * delete the output folders (and the user-owned note bodies in them) before a non-incremental
+     * execution.
      */
     @TaskAction
-    public void run(InputChanges inputChanges) {
+    public void run() {
         List<String> args = new ArrayList<>();
         if (getInputCatalogPath().isPresent()) {
 		    args.add("-i");
@@ -158,20 +432,46 @@ public abstract class Oml2ObsidianTask extends DefaultTask {
         	args.add("-tmp");
         	args.add(getOutputTemplatesPath().get().getAbsolutePath());
 		}
+        if (getInputDescriptionIri().isPresent()) {
+		    args.add("-diri");
+		    args.add(getInputDescriptionIri().get());
+        }
+        if (getOutputInstancesPath().isPresent()) {
+        	args.add("-ins");
+        	args.add(getOutputInstancesPath().get().getAbsolutePath());
+		}
         if (getMetadataRelativePath().isPresent()) {
 		    args.add("-m");
-		    args.add(getMetadataRelativePath().get().getAbsolutePath());
+		    args.add(getMetadataRelativePath().get());
+        }
+        if (getInputClassTemplatePath().isPresent()) {
+		    args.add("-ct");
+		    args.add(getInputClassTemplatePath().get().getAbsolutePath());
+        }
+        if (getInputTemplateTemplatePath().isPresent()) {
+		    args.add("-tt");
+		    args.add(getInputTemplateTemplatePath().get().getAbsolutePath());
         }
+        if (getValidationCachePath().isPresent()) {
+		    args.add("-vc");
+		    args.add(getValidationCachePath().get().getAbsolutePath());
+        }
+		if (getLowMemory().isPresent() && getLowMemory().get()) {
+		    args.add("-lm");
+	    }
 		if (getDebug().isPresent() && getDebug().get()) {
 		    args.add("-d");
+	    }
+		if (getQuiet().isPresent() && getQuiet().get()) {
+		    args.add("-q");
 	    }
 	    try {
-	    	if (inputChanges.isIncremental()) {
-	    		final Set<File> deltas = new HashSet<>();
-	        	inputChanges.getFileChanges(getInputFiles()).forEach(f -> deltas.add(f.getFile()));
-	        	Oml2ObsidianApp.mainWithDeltas(deltas, args.toArray(new String[0]));
-	    	} else {
+	    	final Map<String, String> before = hashContent(getOutputFolders());
+	    	try {
 	    		Oml2ObsidianApp.main(args.toArray(new String[0]));
+	    	} finally {
+	    		// the notes written before a failure (e.g., of the valid descriptions) are also generated
+	    		writeGeneratedContent(before);
 	    	}
 		} catch (Exception e) {
 			throw new TaskExecutionException(this, e);
@@ -0,0 +1,130 @@
+/**
+ * 
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package io.opencaesar.oml2obsidian;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.emf.ecore.resource.Resource;
+
+import io.opencaesar.oml.Annotation;
+import io.opencaesar.oml.AnnotationProperty;
+import io.opencaesar.oml.IdentifiedElement;
+import io.opencaesar.oml.Literal;
+
+/**
+ * An index of the values of a fixed set of annotation properties, built by scanning
+ * all annotations in scope once, such that each lookup is a hash hit.
+ * 
+ * When an element has several values for a property, the value of an annotation in the
+ * element's own resource wins, then the first one by resource URI, so the result does
+ * not depend on the iteration order of the scope.
+ */
+class AnnotationIndex {
+
+	/**
+	 * A marker for annotations that have no literal value
+	 */
+	private static final String NO_VALUE = new String();
+
+	private final Map<AnnotationProperty, Map<IdentifiedElement, String>> index = new HashMap<>();
+
+	private final Map<AnnotationProperty, Set<IdentifiedElement>> ownValues = new HashMap<>();
+
+	/**
+	 * Creates a new AnnotationIndex object
+	 * 
+	 * @param scope the resources to scan for annotations
+	 * @param properties the annotation properties to index (null ones are skipped)
+	 */
+	public AnnotationIndex(Set<Resource> scope, AnnotationProperty... properties) {
+		for (var property : properties) {
+			if (property != null) {
+				index.put(property, new HashMap<>());
+				ownValues.put(property, new HashSet<>());
+			}
+		}
+		if (index.isEmpty()) {
+			return;
+		}
+		var resources = scope.stream()
+				.sorted(Comparator.comparing(r -> String.valueOf(r.getURI())))
+				.toList();
+		for (var resource : resources) {
+			var i = resource.getAllContents();
+			while (i.hasNext()) {
+				var object = i.next();
+				if (object instanceof Annotation) {
+					var annotation = (Annotation) object;
+					var values = index.get(annotation.getProperty());
+					if (values != null) {
+						var element = annotation.getAnnotatedElement();
+						var value = annotation.getLiteralValues().stream()
+								.map(Literal::getStringValue)
+								.findFirst()
+								.orElse(NO_VALUE);
+						var own = value != NO_VALUE && element.eResource() == resource;
+						var owned = ownValues.get(annotation.getProperty());
+						var existing = values.get(element);
+						if (existing == null || existing == NO_VALUE || (own && !owned.contains(element))) {
+							values.put(element, value);
+							if (own) {
+								owned.add(element);
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns whether the given element is annotated by the given property
+	 * 
+	 * @param element the annotated element
+	 * @param property the annotation property
+	 * @return true if the element has at least one annotation with the property
+	 */
+	public boolean isAnnotatedBy(IdentifiedElement element, AnnotationProperty property) {
+		var values = index.get(property);
+		return values != null && values.containsKey(element);
+	}
+
+	/**
+	 * Returns the first literal value of the given property on the given element
+	 * 
+	 * @param element the annotated element
+	 * @param property the annotation property
+	 * @return the string value of the literal, or null if there is none
+	 */
+	public String getLiteralValue(IdentifiedElement element, AnnotationProperty property) {
+		var values = index.get(property);
+		if (values != null) {
+			var value = values.get(element);
+			if (value != NO_VALUE) {
+				return value;
+			}
+		}
+		return null;
+	}
+
+}
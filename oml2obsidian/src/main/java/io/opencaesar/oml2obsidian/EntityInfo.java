@@ -0,0 +1,59 @@
+/**
+ * 
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package io.opencaesar.oml2obsidian;
+
+import java.util.List;
+
+/**
+ * An immutable snapshot of an entity with everything needed to generate its notes
+ *
+ * @param iri the iri of the entity
+ * @param abbreviatedIri the abbreviated iri of the entity
+ * @param prefix the prefix of the entity's vocabulary
+ * @param name the name of the entity
+ * @param label the label of the entity (null when not labeled)
+ * @param comment the comment of the entity (null when not commented)
+ * @param icon the obsidian icon of the entity (empty when not specified)
+ * @param relationEntity whether the entity is a relation entity
+ * @param functional whether the relation entity is functional
+ * @param fields the fields of the entity in generation order
+ * @param sources the most specific sources of the relation entity as 'prefix/name' tags (sorted)
+ * @param targets the most specific targets of the relation entity as 'prefix/name' tags (sorted)
+ */
+record EntityInfo(
+		String iri,
+		String abbreviatedIri,
+		String prefix,
+		String name,
+		String label,
+		String comment,
+		String icon,
+		boolean relationEntity,
+		boolean functional,
+		List<FieldInfo> fields,
+		List<String> sources,
+		List<String> targets) {
+
+	/**
+	 * @return the tag of the entity in the form 'prefix/name'
+	 */
+	String getTag() {
+		return prefix + "/" + name;
+	}
+}
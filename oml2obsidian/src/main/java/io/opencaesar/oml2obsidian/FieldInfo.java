@@ -0,0 +1,77 @@
+/**
+ * 
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package io.opencaesar.oml2obsidian;
+
+import java.util.List;
+
+/**
+ * An immutable snapshot of a semantic property in the context of an entity
+ *
+ * @param name the name of the property (also the name of the field)
+ * @param abbreviatedIri the abbreviated iri of the property
+ * @param kind the kind of the field
+ * @param functional whether the property is functional
+ * @param ranges the most specific ranges of the property as 'prefix/name' tags (sorted)
+ * @param literals the enumeration literals when the kind is {@link Kind#SELECT}
+ * @param label the label of the property, its name when not labeled, or null when rdfs:label is not in scope
+ * @param comment the comment of the property, empty when not commented, or null when rdfs:comment is not in scope
+ */
+record FieldInfo(
+		String name,
+		String abbreviatedIri,
+		Kind kind,
+		boolean functional,
+		List<String> ranges,
+		List<String> literals,
+		String label,
+		String comment) {
+
+	/**
+	 * The kinds of fields understood by the Metadata Menu plugin
+	 */
+	enum Kind {
+		BOOLEAN("Boolean"),
+		NUMBER("Number"),
+		DATE_TIME("DateTime"),
+		SELECT("Select"),
+		INPUT("Input"),
+		FILE("File"),
+		MULTI_FILE("MultiFile");
+
+		private final String type;
+
+		Kind(String type) {
+			this.type = type;
+		}
+
+		/**
+		 * @return the Metadata Menu name of this field kind
+		 */
+		String getType() {
+			return type;
+		}
+
+		/**
+		 * @return whether this field kind links to other notes
+		 */
+		boolean isLink() {
+			return this == FILE || this == MULTI_FILE;
+		}
+	}
+}
@@ -0,0 +1,42 @@
+/**
+ * 
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package io.opencaesar.oml2obsidian;
+
+/**
+ * A generator of the front matter and body of the notes of entities
+ */
+interface NoteGenerator {
+
+	/**
+	 * Generates the front matter of the entity's note (always regenerated)
+	 * 
+	 * @param entity the entity snapshot
+	 * @return the front matter including its '---' delimiters
+	 */
+	String generateFrontMatter(EntityInfo entity);
+
+	/**
+	 * Generates the initial body of the entity's note (only used when the note is created)
+	 * 
+	 * @param entity the entity snapshot
+	 * @return the body
+	 */
+	String generateBody(EntityInfo entity);
+
+}
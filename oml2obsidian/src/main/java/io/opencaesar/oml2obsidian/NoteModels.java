@@ -0,0 +1,114 @@
+/**
+ * 
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package io.opencaesar.oml2obsidian;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Builds (once per entity) the models that note templates are rendered against.
+ * <p>
+ * An entity model has the keys: iri, abbreviatedIri, prefix, name, tag, label, comment, icon,
+ * relationEntity, functional, metadataPath, fields, sources, targets, sourcesQuery, targetsQuery,
+ * sourceId and targetId. A field model has the keys: name, abbreviatedIri, type, functional, id,
+ * label, comment, scalar, select, link, options (each with index and value), ranges (each with tag)
+ * and query. Queries are Dataview tag queries like '#prefix/Name or #prefix/Other'.
+ */
+class NoteModels {
+
+	private final String metadataPath;
+	private final Map<String, Map<String, Object>> models = new HashMap<>();
+
+	/**
+	 * Creates a new NoteModels object
+	 * 
+	 * @param metadataPath the relative path of the metadata folder in the vault
+	 */
+	public NoteModels(String metadataPath) {
+		this.metadataPath = metadataPath;
+	}
+
+	/**
+	 * Gets the model of the given entity
+	 * 
+	 * @param entity the entity snapshot
+	 * @return the (cached) model of the entity
+	 */
+	public Map<String, Object> get(EntityInfo entity) {
+		return models.computeIfAbsent(entity.iri(), iri -> create(entity));
+	}
+
+	private Map<String, Object> create(EntityInfo entity) {
+		var m = new LinkedHashMap<String, Object>();
+		m.put("iri", entity.iri());
+		m.put("abbreviatedIri", entity.abbreviatedIri());
+		m.put("prefix", entity.prefix());
+		m.put("name", entity.name());
+		m.put("tag", entity.getTag());
+		m.put("label", entity.label() != null ? entity.label() : entity.name());
+		m.put("comment", entity.comment() != null ? entity.comment() : "");
+		m.put("icon", entity.icon());
+		m.put("relationEntity", entity.relationEntity());
+		m.put("functional", entity.functional());
+		m.put("metadataPath", metadataPath);
+		m.put("fields", entity.fields().stream().map(this::create).toList());
+		m.put("sources", tags(entity.sources()));
+		m.put("targets", tags(entity.targets()));
+		m.put("sourcesQuery", query(entity.sources()));
+		m.put("targetsQuery", query(entity.targets()));
+		m.put("sourceId", "f"+(entity.name().hashCode()+1));
+		m.put("targetId", "f"+(entity.name().hashCode()+2));
+		return m;
+	}
+
+	private Map<String, Object> create(FieldInfo field) {
+		var m = new LinkedHashMap<String, Object>();
+		m.put("name", field.name());
+		m.put("abbreviatedIri", field.abbreviatedIri());
+		m.put("type", field.kind().getType());
+		m.put("functional", field.functional());
+		m.put("id", "f"+field.name().hashCode());
+		m.put("label", field.label() != null ? field.label() : field.name());
+		m.put("comment", field.comment() != null ? field.comment() : "");
+		m.put("scalar", !field.kind().isLink());
+		m.put("select", field.kind() == FieldInfo.Kind.SELECT);
+		m.put("link", field.kind().isLink());
+		var options = new ArrayList<Map<String, Object>>();
+		for (int i = 0; i < field.literals().size(); i++) {
+			options.add(Map.of("index", i+1, "value", field.literals().get(i)));
+		}
+		m.put("options", options);
+		m.put("ranges", tags(field.ranges()));
+		m.put("query", query(field.ranges()));
+		return m;
+	}
+
+	private static List<Map<String, Object>> tags(List<String> tags) {
+		return tags.stream().map(i -> Map.<String, Object>of("tag", i)).toList();
+	}
+
+	private static String query(List<String> tags) {
+		return tags.stream().map(i -> "#"+i).collect(Collectors.joining(" or "));
+	}
+
+}
@@ -0,0 +1,245 @@
+/**
+ * 
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package io.opencaesar.oml2obsidian;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A note template written in a subset of the Mustache syntax, compiled once into a render plan.
+ * <p>
+ * The supported tags are variables <code>{{name}}</code> (the current item is <code>{{.}}</code>),
+ * sections <code>{{#name}}...{{/name}}</code> (repeated for lists, rendered once for other truthy values),
+ * inverted sections <code>{{^name}}...{{/name}}</code> and comments <code>{{! ... }}</code>. Values are
+ * not escaped. Section and comment tags that are alone on their line do not leave a blank line behind.
+ */
+class NoteTemplate {
+
+	private static final String OPEN = "{{";
+	private static final String CLOSE = "}}";
+
+	private final List<Node> nodes;
+
+	private NoteTemplate(List<Node> nodes) {
+		this.nodes = nodes;
+	}
+
+	/**
+	 * Loads and compiles a note template file
+	 * 
+	 * @param file the template file
+	 * @return the compiled template
+	 * @throws IOException if the file cannot be read
+	 */
+	public static NoteTemplate load(File file) throws IOException {
+		try {
+			return compile(Files.readString(file.toPath(), StandardCharsets.UTF_8));
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid template "+file+": "+e.getMessage(), e);
+		}
+	}
+
+	/**
+	 * Compiles the given template text
+	 * 
+	 * @param text the template text
+	 * @return the compiled template
+	 */
+	public static NoteTemplate compile(String text) {
+		var root = new ArrayList<Node>();
+		var stack = new ArrayDeque<Section>();
+		var nodes = (List<Node>) root;
+		int cursor = 0;
+		int i;
+		while ((i = text.indexOf(OPEN, cursor)) != -1) {
+			int j = text.indexOf(CLOSE, i + OPEN.length());
+			if (j == -1) {
+				throw new IllegalArgumentException("unclosed tag at line "+line(text, i));
+			}
+			var tag = text.substring(i + OPEN.length(), j).strip();
+			int start = i;
+			int end = j + CLOSE.length();
+			char kind = tag.isEmpty() ? ' ' : tag.charAt(0);
+			
+			// standalone section and comment tags consume their whole line
+			if (kind == '#' || kind == '^' || kind == '/' || kind == '!') {
+				int lineStart = text.lastIndexOf('\n', i - 1) + 1;
+				int lineEnd = text.indexOf('\n', end);
+				lineEnd = (lineEnd == -1) ? text.length() : lineEnd + 1;
+				if (text.substring(lineStart, start).isBlank() && text.substring(end, lineEnd).isBlank()) {
+					start = Math.max(lineStart, cursor);
+					end = lineEnd;
+				}
+			}
+			if (start > cursor) {
+				nodes.add(new Text(text.substring(cursor, start)));
+			}
+			cursor = end;
+
+			switch (kind) {
+				case '#':
+				case '^':
+					var section = new Section(tag.substring(1).strip(), kind == '^');
+					nodes.add(section);
+					stack.push(section);
+					nodes = section.children;
+					break;
+				case '/':
+					var name = tag.substring(1).strip();
+					if (stack.isEmpty() || !stack.peek().name.equals(name)) {
+						throw new IllegalArgumentException("unexpected {{/"+name+"}} at line "+line(text, i));
+					}
+					stack.pop();
+					nodes = stack.isEmpty() ? root : stack.peek().children;
+					break;
+				case '!':
+					break;
+				default:
+					nodes.add(new Variable(tag));
+			}
+		}
+		if (!stack.isEmpty()) {
+			throw new IllegalArgumentException("unclosed section {{#"+stack.peek().name+"}}");
+		}
+		if (cursor < text.length()) {
+			nodes.add(new Text(text.substring(cursor)));
+		}
+		return new NoteTemplate(List.copyOf(root));
+	}
+
+	/**
+	 * Renders this template against the given model
+	 * 
+	 * @param model the model (a map of names to strings, booleans, lists or nested maps)
+	 * @return the rendered text
+	 */
+	public String render(Map<String, Object> model) {
+		var out = new StringBuilder();
+		var context = new ArrayDeque<Object>();
+		context.push(model);
+		render(nodes, context, out);
+		return out.toString();
+	}
+
+	private static void render(List<Node> nodes, Deque<Object> context, StringBuilder out) {
+		for (var node : nodes) {
+			node.render(context, out);
+		}
+	}
+
+	private static Object lookup(Deque<Object> context, String name) {
+		if (name.equals(".")) {
+			return context.peek();
+		}
+		for (Iterator<Object> i = context.iterator(); i.hasNext();) {
+			var scope = i.next();
+			if (scope instanceof Map && ((Map<?, ?>) scope).containsKey(name)) {
+				return ((Map<?, ?>) scope).get(name);
+			}
+		}
+		return null;
+	}
+
+	private static boolean isTruthy(Object value) {
+		if (value == null || Boolean.FALSE.equals(value)) {
+			return false;
+		} else if (value instanceof Collection) {
+			return !((Collection<?>) value).isEmpty();
+		} else if (value instanceof String) {
+			return !((String) value).isEmpty();
+		}
+		return true;
+	}
+
+	private static int line(String text, int index) {
+		return (int) text.substring(0, index).chars().filter(c -> c == '\n').count() + 1;
+	}
+
+	private interface Node {
+		void render(Deque<Object> context, StringBuilder out);
+	}
+
+	private static class Text implements Node {
+		private final String text;
+		Text(String text) {
+			this.text = text;
+		}
+		@Override
+		public void render(Deque<Object> context, StringBuilder out) {
+			out.append(text);
+		}
+	}
+
+	private static class Variable implements Node {
+		private final String name;
+		Variable(String name) {
+			this.name = name;
+		}
+		@Override
+		public void render(Deque<Object> context, StringBuilder out) {
+			var value = lookup(context, name);
+			if (value != null) {
+				out.append(value);
+			}
+		}
+	}
+
+	private static class Section implements Node {
+		private final String name;
+		private final boolean inverted;
+		private final List<Node> children = new ArrayList<>();
+		Section(String name, boolean inverted) {
+			this.name = name;
+			this.inverted = inverted;
+		}
+		@Override
+		public void render(Deque<Object> context, StringBuilder out) {
+			var value = lookup(context, name);
+			if (inverted) {
+				if (!isTruthy(value)) {
+					NoteTemplate.render(children, context, out);
+				}
+			} else if (isTruthy(value)) {
+				if (value instanceof Collection) {
+					for (var item : (Collection<?>) value) {
+						context.push(item);
+						NoteTemplate.render(children, context, out);
+						context.pop();
+					}
+				} else if (value instanceof Boolean) {
+					NoteTemplate.render(children, context, out);
+				} else {
+					context.push(value);
+					NoteTemplate.render(children, context, out);
+					context.pop();
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,195 @@
+/**
+ * 
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package io.opencaesar.oml2obsidian;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+
+import io.opencaesar.oml.Literal;
+import io.opencaesar.oml.NamedInstance;
+import io.opencaesar.oml.RelationInstance;
+
+/**
+ * Generates the note of a named instance, whose front matter matches the template notes of its types
+ */
+class Oml2Instance {
+
+	private final Map<String, EntityInfo> entities;
+
+	private final Logger logger;
+
+	/**
+	 * Creates a new Oml2Instance object
+	 * 
+	 * @param entities the entity snapshots by iri (their fields are the fields of the notes)
+	 * @param logger the logger of the values that cannot be written to the notes
+	 */
+	public Oml2Instance(Map<String, EntityInfo> entities, Logger logger) {
+		this.entities = entities;
+		this.logger = logger;
+	}
+
+	/**
+	 * Returns the tag-like path of the note of the given instance
+	 * 
+	 * @param instance the named instance
+	 * @return the path in the form 'prefix/name'
+	 */
+	public static String getPath(NamedInstance instance) {
+		return instance.getOntology().getPrefix()+"/"+instance.getName();
+	}
+
+	/**
+	 * Generates the front matter of the note of the given instance, with its types as tags and
+	 * the fields of its types. Values of properties that are not fields of its types, and contained
+	 * (anonymous) instance values, are skipped with a warning.
+	 * 
+	 * @param instance the named instance
+	 * @return the front matter
+	 */
+	public String generateFrontMatter(NamedInstance instance) {
+		var s = new StringBuffer();
+		s.append("---\n");
+
+		// write the types as tags and collect their fields (by property, the first one of a name wins)
+		var tags = new LinkedHashSet<String>();
+		var fields = new LinkedHashMap<String, FieldInfo>();
+		var names = new HashSet<String>();
+		boolean relationEntity = instance instanceof RelationInstance;
+		for (var assertion : instance.getOwnedTypes()) {
+			var type = assertion.getType();
+			tags.add(type.getOntology().getPrefix()+"/"+type.getName());
+			var entity = entities.get(type.getIri());
+			if (entity != null) {
+				for (var field : entity.fields()) {
+					if (!fields.containsKey(field.abbreviatedIri()) && names.add(field.name())) {
+						fields.put(field.abbreviatedIri(), field);
+					}
+				}
+				relationEntity |= entity.relationEntity();
+			}
+		}
+		s.append("tags:\n");
+		tags.forEach(t -> s.append("  - "+t+"\n"));
+
+		// collect the asserted values of the fields
+		var values = new LinkedHashMap<String, List<String>>();
+		var notFields = new LinkedHashSet<String>();
+		var contained = new LinkedHashSet<String>();
+		for (var assertion : instance.getOwnedPropertyValues()) {
+			var property = assertion.getProperty().getAbbreviatedIri();
+			var field = fields.get(property);
+			if (field == null) {
+				notFields.add(property);
+				continue;
+			}
+			var list = values.computeIfAbsent(property, k -> new ArrayList<>());
+			for (var literal : assertion.getLiteralValues()) {
+				list.add(toValue(field, literal));
+			}
+			for (var referenced : assertion.getReferencedValues()) {
+				list.add(toLink(referenced));
+			}
+			if (!assertion.getContainedValues().isEmpty()) {
+				contained.add(property);
+			}
+		}
+		if (!notFields.isEmpty()) {
+			logger.warn("Skipped the values of "+notFields+" of "+instance.getAbbreviatedIri()+" (not fields of its types)");
+		}
+		if (!contained.isEmpty()) {
+			logger.warn("Skipped the contained instance values of "+contained+" of "+instance.getAbbreviatedIri()+" (only literals and named instances are supported)");
+		}
+
+		// write property fields
+		for (var field : fields.values()) {
+			s.append(generateField(field.name(), field.functional(), values.getOrDefault(field.abbreviatedIri(), List.of())));
+		}
+
+		// write relation entity source and target
+		if (relationEntity) {
+			var sources = new ArrayList<String>();
+			var targets = new ArrayList<String>();
+			if (instance instanceof RelationInstance) {
+				((RelationInstance) instance).getSources().forEach(i -> sources.add(toLink(i)));
+				((RelationInstance) instance).getTargets().forEach(i -> targets.add(toLink(i)));
+			}
+			s.append(generateField("hasSource", false, sources));
+			s.append(generateField("hasTarget", false, targets));
+		}
+
+		s.append("---\n");
+		return s.toString();
+	}
+
+	/**
+	 * Generates the initial body of the note of an instance
+	 * 
+	 * @return the body
+	 */
+	public String generateBody() {
+		var s = new StringBuffer();
+		s.append("```dataview\n"
+				+ "TABLE WITHOUT ID tags as \"**<big>Tags</big>**\"\n"
+				+ "FROM \"\"\n"
+				+ "WHERE file.path = this.file.path\n"
+				+ "```\n");
+		return s.toString();
+	}
+
+	private static String generateField(String name, boolean functional, List<String> values) {
+		var s = new StringBuffer();
+		if (functional && values.size() <= 1) {
+			s.append(name+":"+(values.isEmpty() ? "" : " "+values.get(0))+"\n");
+		} else if (values.isEmpty()) {
+			s.append(name+": []\n");
+		} else {
+			s.append(name+":\n");
+			values.forEach(v -> s.append("  - "+v+"\n"));
+		}
+		return s.toString();
+	}
+
+	private static String toValue(FieldInfo field, Literal literal) {
+		var value = literal.getLexicalValue();
+		switch (field.kind()) {
+			case BOOLEAN:
+			case NUMBER:
+			case DATE_TIME:
+				return value;
+			default:
+				return quote(value);
+		}
+	}
+
+	private static String toLink(NamedInstance instance) {
+		return quote("[["+getPath(instance)+"]]");
+	}
+
+	private static String quote(String value) {
+		return "\""+value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n")+"\"";
+	}
+
+}
@@ -24,23 +24,28 @@ import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import org.apache.log4j.Appender;
 import org.apache.log4j.AppenderSkeleton;
+import org.apache.log4j.AsyncAppender;
+import org.apache.log4j.ConsoleAppender;
 import org.apache.log4j.Level;
 import org.apache.log4j.LogManager;
 import org.apache.log4j.Logger;
+import org.apache.log4j.Priority;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
@@ -52,14 +57,9 @@ import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.ParameterException;
 
-import io.opencaesar.oml.AnnotationProperty;
-import io.opencaesar.oml.Aspect;
-import io.opencaesar.oml.Concept;
-import io.opencaesar.oml.Entity;
+import io.opencaesar.oml.Description;
+import io.opencaesar.oml.NamedInstance;
 import io.opencaesar.oml.Ontology;
-import io.opencaesar.oml.Property;
-import io.opencaesar.oml.RelationEntity;
-import io.opencaesar.oml.SemanticProperty;
 import io.opencaesar.oml.Vocabulary;
 import io.opencaesar.oml.dsl.OmlStandaloneSetup;
 import io.opencaesar.oml.resource.OmlJsonResourceFactory;
@@ -67,7 +67,6 @@ import io.opencaesar.oml.resource.OmlXMIResourceFactory;
 import io.opencaesar.oml.util.OmlConstants;
 import io.opencaesar.oml.util.OmlRead;
 import io.opencaesar.oml.util.OmlResolve;
-import io.opencaesar.oml.util.OmlSearch;
 import io.opencaesar.oml.validate.OmlValidator;
 
 /**
@@ -75,6 +74,15 @@ import io.opencaesar.oml.validate.OmlValidator;
  */
 public class Oml2ObsidianApp {
 
+	private static final int ASYNC_LOGGING_BUFFER_SIZE = 8192;
+
+	// the runs sharing the async appender (several runs may share a JVM, e.g., a Gradle daemon)
+	private static int asyncLoggingRuns;
+
+	private static Runnable restoreConsoleLogging;
+
+	private static final Pattern FRONT_MATTER = Pattern.compile("\\A---[ \\t]*\\R.*?^---[ \\t]*$\\R?", Pattern.MULTILINE | Pattern.DOTALL);
+
 	private static final List<String> BUILT_IN_ONTOLOGIES = Arrays.asList(new String[] {
 			"http://www.w3.org/2001/XMLSchema#",
 			"http://www.w3.org/1999/02/22-rdf-syntax-ns#",
@@ -96,6 +104,12 @@ public class Oml2ObsidianApp {
 			required=true)
 	private String inputOntologyIri = null;
 
+	@Parameter(
+			names= { "--input-description-iri", "-diri" }, 
+			description="IRI of the input Oml description (or description bundle) whose instances get notes (Optional)",
+			required=false)
+	private String inputDescriptionIri = null;
+
 	@Parameter(
 			names = { "--output-classes-path", "-cls" }, 
 			description = "Path of the output classes folder (Required, e.g. path/to/classes)", 
@@ -108,25 +122,75 @@ public class Oml2ObsidianApp {
 			required = false)
 	private String outputTemplatesPath;
 
+	@Parameter(
+			names = { "--output-instances-path", "-ins" }, 
+			description = "Path of the output instances folder (Required with --input-description-iri, e.g. path/to/instances)", 
+			required = false)
+	private String outputInstancesPath;
+
 	@Parameter(
 			names = { "--output-metadata-path-filter", "-m" }, 
 			description = "Relative path within vault to metadata folder (Optional, default is 'metadata')", 
-			validateWith = OutputVaultPath.class, 
+			validateWith = MetadataRelativePath.class, 
 			required = false)
 	private String metadataRelativePath = "metadata";
 
+	@Parameter(
+			names = { "--input-class-template-path", "-ct" }, 
+			description = "Path of a template file for class notes (Optional, default is the built-in layout)", 
+			validateWith = InputTemplatePath.class, 
+			required = false)
+	private String inputClassTemplatePath;
+
+	@Parameter(
+			names = { "--input-template-template-path", "-tt" }, 
+			description = "Path of a template file for template notes (Optional, default is the built-in layout)", 
+			validateWith = InputTemplatePath.class, 
+			required = false)
+	private String inputTemplateTemplatePath;
+
+	@Parameter(
+			names = { "--validation-cache-path", "-vc" }, 
+			description = "Path of a folder where validation results are cached (Optional, default is no cache)", 
+			required = false)
+	private String validationCachePath;
+
+	@Parameter(
+			names = { "--shard", "-s" }, 
+			description = "Generates only the notes of shard i out of n shards of the entities (Optional, e.g. 1/4)", 
+			validateWith = ShardSpec.class, 
+			required = false)
+	private String shard;
+
+	@Parameter(
+			names = { "--low-memory", "-lm" },
+			description = "Unloads the Oml model before generating notes to reduce peak memory (Optional)")
+	private boolean lowMemory;
+
+	@Parameter(
+			names = { "--check", "-c" },
+			description = "Checks that the vault is up to date without writing to it, and fails if it is not (Optional)")
+	private boolean check;
+
 	@Parameter(
 			names = { "--debug", "-d" },
 			description = "Shows debug logging statements")
 	private boolean debug;
 
+	@Parameter(
+			names = { "--quiet", "-q" },
+			description = "Shows only the summary of the run (Optional)")
+	private boolean quiet;
+
 	@Parameter(
 			names = { "--help", "-h" },
 			description = "Displays summary of options",
 			help = true)
 	private boolean help;
 
-	private final Logger LOGGER = LogManager.getLogger(Oml2ObsidianApp.class);
+	private Logger LOGGER = LogManager.getLogger(Oml2ObsidianApp.class);
+
+	private final Logger SUMMARY_LOGGER = LogManager.getLogger(Oml2ObsidianApp.class.getPackageName()+".summary");
 
     /**
      * Main Method
@@ -152,10 +216,91 @@ public class Oml2ObsidianApp {
 			return;
 		}
 		if (app.debug) {
-			final Appender appender = LogManager.getRootLogger().getAppender("stdout");
-			((AppenderSkeleton) appender).setThreshold(Level.DEBUG);
+			Appender appender = LogManager.getRootLogger().getAppender("stdout");
+			if (appender == null && LogManager.getRootLogger().getAppender("async") instanceof AsyncAppender) {
+				// another run has moved it behind the async appender, whose threshold is lowered as well
+				final AsyncAppender asyncAppender = (AsyncAppender) LogManager.getRootLogger().getAppender("async");
+				asyncAppender.setThreshold(Level.DEBUG);
+				appender = asyncAppender.getAppender("stdout");
+			}
+			if (appender instanceof AppenderSkeleton) {
+				((AppenderSkeleton) appender).setThreshold(Level.DEBUG);
+			}
+		} else if (app.quiet) {
+			// a logger of its own rather than a level on the shared one, so concurrent runs are not silenced
+			app.LOGGER = LogManager.getLogger(Oml2ObsidianApp.class.getName()+".quiet");
+			app.LOGGER.setLevel(Level.WARN);
+		}
+		startAsyncLogging();
+		try {
+			app.run(deltas);
+		} finally {
+			stopAsyncLogging();
+		}
+	}
+
+	/**
+	 * Moves the console appenders of the root logger behind an async appender, such that
+	 * formatting and console I/O happen off the main thread. Concurrent runs share the
+	 * async appender, which is installed by the first run and removed by the last one.
+	 */
+	private static synchronized void startAsyncLogging() {
+		if (asyncLoggingRuns == 0) {
+			restoreConsoleLogging = installAsyncLogging();
+		}
+		asyncLoggingRuns++;
+	}
+
+	/**
+	 * Flushes the async appender and restores the console appenders once no run uses them
+	 */
+	private static synchronized void stopAsyncLogging() {
+		if (--asyncLoggingRuns == 0) {
+			restoreConsoleLogging.run();
+			restoreConsoleLogging = null;
+		}
+	}
+
+	private static Runnable installAsyncLogging() {
+		final Logger root = LogManager.getRootLogger();
+		final List<ConsoleAppender> consoleAppenders = new ArrayList<>();
+		for (Enumeration<?> i = root.getAllAppenders(); i.hasMoreElements();) {
+			final Object appender = i.nextElement();
+			if (appender instanceof ConsoleAppender) {
+				consoleAppenders.add((ConsoleAppender) appender);
+			}
+		}
+		if (consoleAppenders.isEmpty()) {
+			return () -> {};
+		}
+		final AsyncAppender asyncAppender = new AsyncAppender();
+		asyncAppender.setName("async");
+		asyncAppender.setBufferSize(ASYNC_LOGGING_BUFFER_SIZE);
+		Priority threshold = Level.OFF;
+		for (ConsoleAppender appender : consoleAppenders) {
+			// a copy is used since closing the async appender closes its appenders
+			final ConsoleAppender copy = new ConsoleAppender(appender.getLayout(), appender.getTarget());
+			copy.setName(appender.getName());
+			copy.setThreshold(appender.getThreshold());
+			asyncAppender.addAppender(copy);
+			root.removeAppender(appender);
+			threshold = lowest(threshold, appender.getThreshold());
+		}
+		// events no copy would log are dropped before they are buffered
+		asyncAppender.setThreshold(threshold);
+		root.addAppender(asyncAppender);
+		return () -> {
+			root.removeAppender(asyncAppender);
+			asyncAppender.close();
+			consoleAppenders.forEach(root::addAppender);
+		};
+	}
+
+	private static Priority lowest(Priority a, Priority b) {
+		if (a == null || b == null) {
+			return Level.ALL;
 		}
-		app.run(deltas);
+		return b.isGreaterOrEqual(a) ? a : b;
 	}
 
 	/**
@@ -173,7 +318,23 @@ public class Oml2ObsidianApp {
 		LOGGER.info("Input vocabulary bundle Iri= " + inputOntologyIri);
 		LOGGER.info("Output classes path= " + outputClassesPath);
 		LOGGER.info("Output templates path= " + outputTemplatesPath);
+		LOGGER.info("Input description Iri= " + inputDescriptionIri);
+		LOGGER.info("Output instances path= " + outputInstancesPath);
 		LOGGER.info("Metadata relative path= " + metadataRelativePath);
+		LOGGER.info("Input class template path= " + inputClassTemplatePath);
+		LOGGER.info("Input template template path= " + inputTemplateTemplatePath);
+		LOGGER.info("Validation cache path= " + validationCachePath);
+		LOGGER.info("Shard= " + shard);
+		LOGGER.info("Low memory= " + lowMemory);
+		LOGGER.info("Check= " + check);
+
+		if ((inputDescriptionIri == null) != (outputInstancesPath == null)) {
+			throw new IllegalArgumentException("--input-description-iri and --output-instances-path must be specified together");
+		}
+
+		// compile the note templates once
+		var classTemplate = (inputClassTemplatePath != null) ? NoteTemplate.load(new File(inputClassTemplatePath)) : null;
+		var templateTemplate = (inputTemplateTemplatePath != null) ? NoteTemplate.load(new File(inputTemplateTemplatePath)) : null;
 
 		// Setup OML resource set
 		OmlStandaloneSetup.doSetup();
@@ -187,16 +348,21 @@ public class Oml2ObsidianApp {
 		if (inputOntologyIri != null) {
 			final URI inputCatalogUri = URI.createFileURI(inputCatalogPath);
 			URI rootUri = resolveRootOntologyIri(inputOntologyIri, inputCatalogUri);
-			LOGGER.info(("Reading: " + rootUri));
+			LOGGER.debug(("Reading: " + rootUri));
 			Ontology rootOntology = OmlRead.getOntology(inputResourceSet.getResource(rootUri, true));
 			inputIris.addAll(OmlRead.getImportedOntologyClosure(rootOntology, true).stream().map(i -> i.getIri()).collect(Collectors.toList()));
 		}
 		
 		// validate resources
 		StringBuffer problems = new StringBuffer();
+		var validationCache = (validationCachePath != null) ? new ValidationCache(new File(validationCachePath)) : null;
+		var validationProgress = new ProgressReporter(LOGGER, "Validating", inputResourceSet.getResources().size());
 		for (Resource resource : inputResourceSet.getResources()) {
-			LOGGER.info(("Validating: " + resource.getURI().path()));
-			String results = OmlValidator.validate(resource);
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug(("Validating: " + resource.getURI().path()));
+			}
+			String results = (validationCache != null) ? validationCache.validate(resource, OmlValidator::validate) : OmlValidator.validate(resource);
+			validationProgress.step();
 	        if (results.length()>0) {
 	        	if (problems.length()>0)
 	        		problems.append("\n\n");
@@ -206,26 +372,144 @@ public class Oml2ObsidianApp {
 		if (problems.length()>0) {
 			throw new IllegalStateException("\n"+problems.toString());
 		}
+		if (validationCache != null) {
+			LOGGER.info("Validation cache hits= " + validationCache.getHits());
+		}
+		
+		// extract an immutable snapshot of the vocabularies (all of them when instances need the fields of their types)
+		var shardSpec = (shard != null) ? Shard.parse(shard) : null;
+		var entities = extractEntities(inputResourceSet, (inputDescriptionIri != null) ? null : shardSpec);
+		
+		// stream the instances of the descriptions (before unloading as they are typed by the vocabularies)
+		var vaultCheck = check ? new VaultCheck() : null;
+		var instanceProgress = new ProgressReporter(LOGGER, check ? "Checking instances" : "Writing instances", 0);
+		int createdInstances = 0;
+		if (inputDescriptionIri != null) {
+			createdInstances = generateInstances(inputResourceSet, entities, shardSpec, validationCache, vaultCheck, instanceProgress);
+			if (shardSpec != null) {
+				entities = entities.stream().filter(i -> shardSpec.contains(i.iri())).collect(Collectors.toList());
+			}
+		}
+		
+		// unload the resource set as notes are generated from the snapshot only
+		if (lowMemory) {
+			LOGGER.info("Unloading: " + inputResourceSet.getResources().size() + " resources");
+			inputResourceSet.eAdapters().clear();
+			for (Resource resource : inputResourceSet.getResources()) {
+				resource.unload();
+			}
+			inputResourceSet.getResources().clear();
+		}
 		
 		// initialize class generator
-		var classGenerator = new Oml2Class(inputResourceSet, metadataRelativePath);
+		var models = new NoteModels(metadataRelativePath);
+		NoteGenerator classGenerator = (classTemplate != null) ? new TemplateNoteGenerator(classTemplate, models) : new Oml2Class(metadataRelativePath);
 		var classPath = new File(outputClassesPath);
-		classPath.mkdirs();
 	
 		// initialize template generator
-		var templateGenerator = new Oml2Template(inputResourceSet);
+		NoteGenerator templateGenerator = (templateTemplate != null) ? new TemplateNoteGenerator(templateTemplate, models) : new Oml2Template();
 		var templatePath = new File(outputTemplatesPath);
-		templatePath.mkdirs();
 
-		// Initialize scope
-		var uniquePrefixes = new HashSet<String>();
-		var scope = new HashSet<>(inputResourceSet.getResources());
+		// check the class and template files of each entity against the vault
+		if (check) {
+			var progress = new ProgressReporter(LOGGER, "Checking", 2 * entities.size());
+			for(var entity : entities) {
+				var path = classPath.getAbsolutePath()+"/"+entity.prefix() + "/" + entity.name()+".md";
+				vaultCheck.check(new File(path), classGenerator.generateFrontMatter(entity));
+				progress.step();
+			}
+			for(var entity : entities) {
+				var path = templatePath.getAbsolutePath()+"/"+entity.prefix() + "/New " + entity.name()+".md";
+				vaultCheck.check(new File(path), templateGenerator.generateFrontMatter(entity));
+				progress.step();
+			}
+			SUMMARY_LOGGER.info(vaultCheck.getReport());
+			if (!vaultCheck.isUpToDate()) {
+				throw new IllegalStateException("The vault is out of date (run without --check to update it)");
+			}
+		} else {
+			// generate class and template files for each entity
+			classPath.mkdirs();
+			templatePath.mkdirs();
+			var progress = new ProgressReporter(LOGGER, "Writing", 2 * entities.size());
+			int created = 0;
+			for(var entity : entities) {
+				var path = classPath.getAbsolutePath()+"/"+entity.prefix() + "/" + entity.name()+".md";
+				if (writeNote(new File(path), classGenerator.generateFrontMatter(entity), () -> classGenerator.generateBody(entity))) {
+					created++;
+				}
+				progress.step();
+			}
+			for(var entity : entities) {
+				var path = templatePath.getAbsolutePath()+"/"+entity.prefix() + "/New " + entity.name()+".md";
+				if (writeNote(new File(path), templateGenerator.generateFrontMatter(entity), () -> templateGenerator.generateBody(entity))) {
+					created++;
+				}
+				progress.step();
+			}
+	
+			SUMMARY_LOGGER.info("Validated "+validationProgress.getSummary()+" resources, wrote "+progress.getSummary()
+				+" notes ("+created+" created, "+(progress.getCount()-created)+" updated)");
+			if (inputDescriptionIri != null) {
+				SUMMARY_LOGGER.info("Wrote "+instanceProgress.getSummary()+" instance notes ("+createdInstances
+					+" created, "+(instanceProgress.getCount()-createdInstances)+" updated)");
+			}
+		}
 
-		// look for some members by iri
-		var ignoreProperty = (AnnotationProperty) OmlRead.getMemberByAbbreviatedIri(inputResourceSet, "obsidian:ignore"); 
-		var thingAspect = (Aspect) OmlRead.getMemberByIri(inputResourceSet, "http://www.w3.org/2002/07/owl#Thing");
+		LOGGER.info("=================================================================");
+		LOGGER.info("                          E N D");
+		LOGGER.info("=================================================================");
+	}
 
-		// Convert resources to Obsidian 
+	/**
+	 * Writes a note with the given front matter, preserving the body of the note if it already exists
+	 * 
+	 * @param file the note file
+	 * @param frontMatter the generated front matter
+	 * @param body the supplier of the generated body, used when the note does not exist
+	 * @return true if the note was created, false if its front matter was updated
+	 * @throws IOException if the existing note cannot be read
+	 */
+	private boolean writeNote(File file, String frontMatter, Supplier<String> body) throws IOException {
+		String content;
+		boolean created;
+		if (file.exists()) {
+			var markdown = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+			content = extractContentAfterFrontMatter(markdown);
+			created = false;
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("Writing: " + file.getPath() + " (updated front matter)");
+			}
+		} else {
+			file.getParentFile().mkdirs();
+			content = body.get();
+			created = true;
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug("Writing: " + file.getPath() + " (created)");
+			}
+		}
+
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
+            writer.write(frontMatter+content);
+        } catch (IOException e) {
+			throw new RuntimeException("Error writing to file: " + e.getMessage());
+        }
+        return created;
+	}
+
+	/**
+	 * Extracts an immutable snapshot of the entities of all non built-in vocabularies in the given resource set
+	 * (only those in the shard when one is specified)
+	 * 
+	 * @param inputResourceSet the loaded resource set
+	 * @param shard the shard of the entities to extract (null for all)
+	 * @return the list of entity snapshots
+	 */
+	private List<EntityInfo> extractEntities(ResourceSet inputResourceSet, Shard shard) {
+		var schema = new Oml2Schema(inputResourceSet, shard);
+		var uniquePrefixes = new HashSet<String>();
+		var entities = new ArrayList<EntityInfo>();
+		
 		for (Resource resource : inputResourceSet.getResources()) {
 			
 			// only process vocabularies that are not built-in
@@ -233,135 +517,160 @@ public class Oml2ObsidianApp {
 			if (ontology instanceof Vocabulary && !BUILT_IN_ONTOLOGIES.contains(ontology.getNamespace())) {
 				var vocabulary = (Vocabulary) ontology;
 
-				// make sure the vocabulary has a unique prefix
+				// make sure the vocabulary has a unique prefix (checked in every shard so they all agree)
 				if (uniquePrefixes.contains(vocabulary.getPrefix())) {
 					throw new RuntimeException("The ontology prefix '"+ontology.getPrefix()+"' is used more than once in this vocabulary bundle");
 				} else {
 					uniquePrefixes.add(vocabulary.getPrefix());
 				}
-								
-				// collect entities defined by the vocabulary
-				var entities = vocabulary.getOwnedStatements().stream()
-						.filter(i -> !i.isRef())
-						.filter(i -> i instanceof Concept || i instanceof RelationEntity)
-						.filter(i -> !OmlSearch.findIsAnnotatedBy(i, ignoreProperty, scope))
-						.map(i -> (Entity)i)
-						.collect(Collectors.toList());
-
-				// collect entity's properties
-				var entityToProperties = new HashMap<Entity, List<SemanticProperty>>();
-				for(var entity : entities) {
-					// collect all properties in the domain of the entity
-					var properties = OmlSearch.findAllSuperTerms(entity, true, scope).stream()
-						.map(j -> (Entity)j)
-						.flatMap(j -> OmlSearch.findSemanticPropertiesWithDomain(j, scope).stream())
-						.collect(Collectors.toList());
-					
-					// add all properties with no domains or with owl:Thing domain
-					properties.addAll(OmlRead.getOntologies(inputResourceSet).stream()
-						.flatMap(i -> OmlRead.getMembers(i).stream())
-						.filter(i -> i instanceof SemanticProperty)
-						.map(i -> (SemanticProperty)i)
-						.filter(i -> {
-							var domains = OmlSearch.findDomains(i, scope);
-							return domains.isEmpty() || domains.contains(thingAspect);
-						})
-						.toList());
-					
-					// remove ignored properties
-					properties.removeAll(properties.stream()
-							.filter(i -> OmlSearch.findIsAnnotatedBy(i, ignoreProperty, scope))
-							.toList());
-					
-					// validate property names
-			        var seen = new HashMap<String, Property>();
-					for (var property: properties) {
-						var name = property.getName();
-						if (!seen.containsKey(name)) {
-							seen.put(name, property);
-						} else {
-							throw new RuntimeException("Property "+seen.get(name).getAbbreviatedIri()
-									+" has the same name as "+property.getAbbreviatedIri()
-									+" in the context of entity "+entity.getAbbreviatedIri());
+				
+				entities.addAll(schema.extract(vocabulary));
+			}
+		}
+		
+		return entities;
+	}
+
+	/**
+	 * Generates (or checks) the notes of the named instances of the input description and the descriptions
+	 * it imports (transitively). Descriptions are streamed: each one is loaded, validated and turned into
+	 * notes, then unloaded with any other description it caused to load, such that only the vocabularies
+	 * stay in memory. The problems of all descriptions are reported together once they are all streamed.
+	 * 
+	 * @param inputResourceSet the resource set with the loaded vocabularies
+	 * @param entities the entity snapshots of the vocabularies
+	 * @param shard the shard of the instances to generate notes for (null for all)
+	 * @param validationCache the validation cache (null for none)
+	 * @param vaultCheck the vault check to check notes against (null to write notes)
+	 * @param progress the progress reporter of the instance notes
+	 * @return the number of created notes
+	 * @throws IOException if a note cannot be read
+	 */
+	private int generateInstances(ResourceSet inputResourceSet, List<EntityInfo> entities, Shard shard,
+			ValidationCache validationCache, VaultCheck vaultCheck, ProgressReporter progress) throws IOException {
+		var generator = new Oml2Instance(entities.stream().collect(Collectors.toMap(i -> i.iri(), i -> i)), LOGGER);
+		var instancesPath = new File(outputInstancesPath);
+		final URI inputCatalogUri = URI.createFileURI(inputCatalogPath);
+		int created = 0;
+		StringBuffer problems = new StringBuffer();
+		
+		// the resources loaded so far (the vocabularies) are kept
+		var kept = inputResourceSet.getResources().stream().map(i -> i.getURI()).collect(Collectors.toSet());
+		var visited = new HashSet<URI>(kept);
+		var queue = new ArrayDeque<URI>();
+		queue.add(resolveRootOntologyIri(inputDescriptionIri, inputCatalogUri));
+		visited.addAll(queue);
+		
+		while (!queue.isEmpty()) {
+			var uri = queue.poll();
+			if (LOGGER.isDebugEnabled()) {
+				LOGGER.debug(("Reading: " + uri));
+			}
+			var resource = inputResourceSet.getResource(uri, true);
+			var ontology = OmlRead.getOntology(resource);
+			
+			// queue the imports (resolved through the catalog such that they are not loaded yet)
+			for (var i : ontology.getOwnedImports()) {
+				var namespace = i.getNamespace();
+				var importUri = resolveRootOntologyIri(namespace.substring(0, namespace.length()-1), inputCatalogUri);
+				if (visited.add(importUri)) {
+					queue.add(importUri);
+				}
+			}
+			
+			if (ontology instanceof Description) {
+				// validate the description
+				if (LOGGER.isDebugEnabled()) {
+					LOGGER.debug(("Validating: " + resource.getURI().path()));
+				}
+				String results = (validationCache != null) ? validationCache.validate(resource, OmlValidator::validate) : OmlValidator.validate(resource);
+				if (results.length()>0) {
+					if (problems.length()>0)
+						problems.append("\n\n");
+					problems.append(results);
+				} else {
+					// generate the notes of its named instances
+					for (var statement : ((Description) ontology).getOwnedStatements()) {
+						if (statement instanceof NamedInstance && !statement.isRef() && (shard == null || shard.contains(statement.getIri()))) {
+							var instance = (NamedInstance) statement;
+							var path = instancesPath.getAbsolutePath()+"/"+Oml2Instance.getPath(instance)+".md";
+							if (vaultCheck != null) {
+								vaultCheck.check(new File(path), generator.generateFrontMatter(instance));
+							} else if (writeNote(new File(path), generator.generateFrontMatter(instance), generator::generateBody)) {
+								created++;
+							}
+							progress.step();
 						}
 					}
-					
-					// add entity properties
-					entityToProperties.put(entity, properties);
 				}
-
-				// generate class file for each entity
-				for(var entity : entities) {
-					var path = classPath.getAbsolutePath()+"/"+entity.getOntology().getPrefix() + "/" + entity.getName()+".md";
-					var file = new File(path);
-
-					var frontMatter = classGenerator.generateFrontMatter(entity, entityToProperties.get(entity), scope);
-					String body;
-					if (file.exists()) {
-						var markdown = Files.readString(Path.of(path), StandardCharsets.UTF_8);
-						body = extractContentAfterFrontMatter(markdown);
-						LOGGER.info("Writing: " + path + " (updated front matter)");
-					} else {
-						file.getParentFile().mkdirs();
-						body = classGenerator.generateBody(entity, entityToProperties.get(entity), scope);
-						LOGGER.info("Writing: " + path + " (created)");
-					}
-										
-			        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
-			            writer.write(frontMatter+body);
-			        } catch (IOException e) {
-						throw new RuntimeException("Error writing to file: " + e.getMessage());
-			        }
-				};
-				
-				// generate template file for each entity
-				for(var entity : entities) {
-					var path = templatePath.getAbsolutePath()+"/"+entity.getOntology().getPrefix() + "/New " + entity.getName()+".md";
-					var file = new File(path);
-
-					var frontMatter = templateGenerator.generateFrontMatter(entity, entityToProperties.get(entity), scope);
-					String body;
-					if (file.exists()) {
-						var markdown = Files.readString(Path.of(path), StandardCharsets.UTF_8);
-						body = extractContentAfterFrontMatter(markdown);
-						LOGGER.info("Writing: " + path + " (updated front matter)");
+			}
+			
+			// unload what is not a vocabulary (the description, description bundle and referenced descriptions)
+			for (var r : new ArrayList<>(inputResourceSet.getResources())) {
+				if (!kept.contains(r.getURI())) {
+					var o = OmlRead.getOntology(r);
+					if (o instanceof Vocabulary) {
+						// a vocabulary outside the bundle is kept and validated, but it is not in the snapshot
+						kept.add(r.getURI());
+						if (LOGGER.isDebugEnabled()) {
+							LOGGER.debug(("Validating: " + r.getURI().path()));
+						}
+						String results = (validationCache != null) ? validationCache.validate(r, OmlValidator::validate) : OmlValidator.validate(r);
+						if (results.length()>0) {
+							if (problems.length()>0)
+								problems.append("\n\n");
+							problems.append(results);
+						}
+						if (!BUILT_IN_ONTOLOGIES.contains(o.getNamespace())) {
+							LOGGER.warn("Vocabulary "+o.getNamespace()+" is imported by a description but not by the vocabulary bundle, so it has no class notes and the instances of its types get no fields");
+						}
 					} else {
-						file.getParentFile().mkdirs();
-						body = templateGenerator.generateBody(entity, entityToProperties.get(entity), scope);
-						LOGGER.info("Writing: " + path + " (created)");
+						inputResourceSet.getResources().remove(r);
+						r.unload();
 					}
-					
-			        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file))) {
-			            writer.write(frontMatter+body);
-			        } catch (IOException e) {
-						throw new RuntimeException("Error writing to file: " + e.getMessage());
-			        }
-				};
+				}
 			}
 		}
-
-		LOGGER.info("=================================================================");
-		LOGGER.info("                          E N D");
-		LOGGER.info("=================================================================");
+		
+		if (problems.length()>0) {
+			throw new IllegalStateException("\n"+problems.toString());
+		}
+		
+		return created;
 	}
 
-    private static String extractContentAfterFrontMatter(String markdown) {
+    /**
+     * Extracts the (user-owned) content of a markdown note that follows its front matter
+     * 
+     * @param markdown the markdown text of the note
+     * @return the trimmed content after the front matter, or the given markdown if it has none
+     */
+    public static String extractContentAfterFrontMatter(String markdown) {
         if (markdown == null || markdown.isEmpty()) {
             return markdown;
         }
 
-        Pattern pattern = Pattern.compile("(?s)(?m)^---\\s*$.*?^---\\s*$\\R?(.*)");
-        Matcher matcher = pattern.matcher(markdown);
-
-        // If we find a match, group(1) holds all text after the second '---'
-        if (matcher.find()) {
-            return matcher.group(1).trim();
+        int length = getFrontMatterLength(markdown);
+        if (length > 0) {
+            return markdown.substring(length).trim();
         }
 
         // If no match, we assume no valid front matter was found
         return markdown;
     }
 
+    /**
+     * Returns the length of the front matter of a markdown note, i.e., of the block delimited by
+     * '---' lines that starts on the first line of the note
+     * 
+     * @param markdown the markdown text of the note
+     * @return the length of the front matter including its closing line, or 0 if the note has none
+     */
+    static int getFrontMatterLength(String markdown) {
+        Matcher matcher = FRONT_MATTER.matcher(markdown);
+        return matcher.lookingAt() ? matcher.end() : 0;
+    }
+
 	private URI resolveRootOntologyIri(String rootOntologyIri, URI catalogUri) throws IOException {
 		final URI resolved = OmlResolve.resolveOmlFileUri(catalogUri, rootOntologyIri);
 		
@@ -410,20 +719,55 @@ public class Oml2ObsidianApp {
 	}
 
 	/**
-	 * The validator of the output vault path 
+	 * The validator of the input template paths 
 	 */
-	public static class OutputVaultPath implements IParameterValidator {
+	public static class InputTemplatePath implements IParameterValidator {
 		/**
-		 * Creates a new OutputVaultPath object
+		 * Creates a new InputTemplatePath object
 		 */
-		public OutputVaultPath() {
+		public InputTemplatePath() {
 		}
 		@Override
 		public void validate(final String name, final String value) throws ParameterException {
 			final File file = new File(value);
-			file.mkdirs();
-			if (!file.exists()) {
-				throw new ParameterException((("Parameter " + name) + " should be a valid folder path"));
+			if (!file.isFile()) {
+				throw new ParameterException((("Parameter " + name) + " should be a valid template file path"));
+			}
+		}
+	}
+
+	/**
+	 * The validator of the shard 
+	 */
+	public static class ShardSpec implements IParameterValidator {
+		/**
+		 * Creates a new ShardSpec object
+		 */
+		public ShardSpec() {
+		}
+		@Override
+		public void validate(final String name, final String value) throws ParameterException {
+			try {
+				Shard.parse(value);
+			} catch (IllegalArgumentException e) {
+				throw new ParameterException("Parameter " + name + " should be in the form i/n where 1 <= i <= n");
+			}
+		}
+	}
+
+	/**
+	 * The validator of the metadata relative path 
+	 */
+	public static class MetadataRelativePath implements IParameterValidator {
+		/**
+		 * Creates a new MetadataRelativePath object
+		 */
+		public MetadataRelativePath() {
+		}
+		@Override
+		public void validate(final String name, final String value) throws ParameterException {
+			if (value.isBlank() || new File(value).isAbsolute()) {
+				throw new ParameterException((("Parameter " + name) + " should be a folder path relative to the vault"));
 			}
 		}
 	}
@@ -0,0 +1,276 @@
+/**
+ * 
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package io.opencaesar.oml2obsidian;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+
+import io.opencaesar.oml.AnnotationProperty;
+import io.opencaesar.oml.Aspect;
+import io.opencaesar.oml.Concept;
+import io.opencaesar.oml.Entity;
+import io.opencaesar.oml.IdentifiedElement;
+import io.opencaesar.oml.Property;
+import io.opencaesar.oml.PropertyRangeRestrictionAxiom;
+import io.opencaesar.oml.RangeRestrictionKind;
+import io.opencaesar.oml.Relation;
+import io.opencaesar.oml.RelationEntity;
+import io.opencaesar.oml.Scalar;
+import io.opencaesar.oml.ScalarProperty;
+import io.opencaesar.oml.SemanticProperty;
+import io.opencaesar.oml.Type;
+import io.opencaesar.oml.Vocabulary;
+import io.opencaesar.oml.util.OmlRead;
+import io.opencaesar.oml.util.OmlSearch;
+
+/**
+ * Extracts immutable {@link EntityInfo} snapshots from the vocabularies of a resource set,
+ * such that notes can be generated after the resource set is unloaded.
+ */
+class Oml2Schema {
+
+	final ResourceSet inputResourceSet;
+	final Shard shard;
+	final Set<Resource> scope;
+	final Aspect thingAspect;
+	final Scalar booleanScalar;
+	final Scalar dateTimeScalar;
+	final Scalar realScalar;
+	final AnnotationProperty ignoreProperty;
+	final AnnotationProperty labelProperty;
+	final AnnotationProperty commentProperty;
+	final AnnotationProperty hasIconProperty;
+	final AnnotationIndex annotations;
+	final List<SemanticProperty> globalProperties;
+
+	public Oml2Schema(ResourceSet inputResourceSet, Shard shard) {
+		this.inputResourceSet = inputResourceSet;
+		this.shard = shard;
+		this.scope = new HashSet<>(inputResourceSet.getResources());
+
+		this.thingAspect = (Aspect) OmlRead.getMemberByIri(inputResourceSet, "http://www.w3.org/2002/07/owl#Thing");
+		this.booleanScalar = (Scalar) OmlRead.getMemberByIri(inputResourceSet, "http://www.w3.org/2001/XMLSchema#boolean");
+		this.dateTimeScalar = (Scalar) OmlRead.getMemberByIri(inputResourceSet, "http://www.w3.org/2001/XMLSchema#dateTime");
+		this.realScalar = (Scalar) OmlRead.getMemberByIri(inputResourceSet, "http://www.w3.org/2002/07/owl#real");
+		this.ignoreProperty = (AnnotationProperty) OmlRead.getMemberByAbbreviatedIri(inputResourceSet, "obsidian:ignore");
+		this.labelProperty = (AnnotationProperty) OmlRead.getMemberByAbbreviatedIri(inputResourceSet, "rdfs:label");
+		this.commentProperty = (AnnotationProperty) OmlRead.getMemberByAbbreviatedIri(inputResourceSet, "rdfs:comment");
+		this.hasIconProperty = (AnnotationProperty) OmlRead.getMemberByIri(inputResourceSet, "http://opencaesar.io/obsidian#hasIcon");
+		this.annotations = new AnnotationIndex(scope, ignoreProperty, labelProperty, commentProperty, hasIconProperty);
+
+		// collect all properties with no domains or with owl:Thing domain (they apply to every entity)
+		this.globalProperties = OmlRead.getOntologies(inputResourceSet).stream()
+			.flatMap(i -> OmlRead.getMembers(i).stream())
+			.filter(i -> i instanceof SemanticProperty)
+			.map(i -> (SemanticProperty)i)
+			.filter(i -> {
+				var domains = OmlSearch.findDomains(i, scope);
+				return domains.isEmpty() || domains.contains(thingAspect);
+			})
+			.toList();
+	}
+
+	/**
+	 * Extracts the entities defined by the given vocabulary (that belong to the shard if any)
+	 *
+	 * @param vocabulary the vocabulary to extract from
+	 * @return the list of entity snapshots in statement order
+	 */
+	public List<EntityInfo> extract(Vocabulary vocabulary) {
+		// collect entities defined by the vocabulary
+		var entities = vocabulary.getOwnedStatements().stream()
+				.filter(i -> !i.isRef())
+				.filter(i -> i instanceof Concept || i instanceof RelationEntity)
+				.filter(i -> shard == null || shard.contains(i.getIri()))
+				.filter(i -> !annotations.isAnnotatedBy(i, ignoreProperty))
+				.map(i -> (Entity)i)
+				.collect(Collectors.toList());
+
+		var infos = new ArrayList<EntityInfo>(entities.size());
+		for (var entity : entities) {
+			infos.add(extract(entity));
+		}
+		return infos;
+	}
+
+	private EntityInfo extract(Entity entity) {
+		// collect all properties in the domain of the entity
+		var properties = OmlSearch.findAllSuperTerms(entity, true, scope).stream()
+			.map(j -> (Entity)j)
+			.flatMap(j -> OmlSearch.findSemanticPropertiesWithDomain(j, scope).stream())
+			.collect(Collectors.toList());
+		properties.addAll(globalProperties);
+
+		// remove ignored properties
+		properties.removeAll(properties.stream()
+				.filter(i -> annotations.isAnnotatedBy(i, ignoreProperty))
+				.toList());
+
+		// validate property names
+        var seen = new HashMap<String, Property>();
+		for (var property: properties) {
+			var name = property.getName();
+			if (!seen.containsKey(name)) {
+				seen.put(name, property);
+			} else {
+				throw new RuntimeException("Property "+seen.get(name).getAbbreviatedIri()
+						+" has the same name as "+property.getAbbreviatedIri()
+						+" in the context of entity "+entity.getAbbreviatedIri());
+			}
+		}
+
+		// extract fields
+		var fields = new ArrayList<FieldInfo>(properties.size());
+		for (var property : properties) {
+			fields.add(extract(entity, property));
+		}
+
+		// relation entities additionally have sources and targets
+		List<String> sources = Collections.emptyList();
+		List<String> targets = Collections.emptyList();
+		boolean functional = false;
+		if (entity instanceof RelationEntity) {
+			var re = (RelationEntity)entity;
+			sources = toTags(getMostSpecificTypes(new HashSet<>(OmlSearch.findSources(re, scope))));
+			targets = toTags(getMostSpecificTypes(new HashSet<>(OmlSearch.findTargets(re, scope))));
+			functional = re.isFunctional();
+		}
+
+		return new EntityInfo(
+				entity.getIri(),
+				entity.getAbbreviatedIri(),
+				entity.getOntology().getPrefix(),
+				entity.getName(),
+				findLiteralValue(entity, labelProperty),
+				findLiteralValue(entity, commentProperty),
+				findAnnotationValue(entity, hasIconProperty),
+				entity instanceof RelationEntity,
+				functional,
+				List.copyOf(fields),
+				sources,
+				targets);
+	}
+
+	private FieldInfo extract(Entity entity, SemanticProperty property) {
+		var name = property.getName();
+		var kind = FieldInfo.Kind.INPUT;
+		List<String> ranges = Collections.emptyList();
+		List<String> literals = Collections.emptyList();
+
+		if (property instanceof ScalarProperty) {
+			var range = getMostSpecificPropertyRanges(entity, property).iterator().next();
+			ranges = toTags(Collections.singleton(range));
+			if (OmlSearch.findIsSubTermOf(range, booleanScalar, scope)) {
+				kind = FieldInfo.Kind.BOOLEAN;
+			} else if (OmlSearch.findIsSubTermOf(range, realScalar, scope)) {
+				kind = FieldInfo.Kind.NUMBER;
+			} else if (OmlSearch.findIsSubTermOf(range, dateTimeScalar, scope)) {
+				kind = FieldInfo.Kind.DATE_TIME;
+			} else if (OmlSearch.findIsEnumeratedScalar((Scalar)range, scope)) {
+				kind = FieldInfo.Kind.SELECT;
+				literals = OmlSearch.findEnumerationLiterals((Scalar)range, scope).stream()
+						.map(i -> i.getLexicalValue())
+						.toList();
+			}
+		} else if (property instanceof Relation) {
+			kind = property.isFunctional() ? FieldInfo.Kind.FILE : FieldInfo.Kind.MULTI_FILE;
+			ranges = toTags(getMostSpecificPropertyRanges(entity, property));
+		}
+
+		String label = null;
+		if (labelProperty != null) {
+			label = findLiteralValue(property, labelProperty);
+			if (label == null) {
+				label = name;
+			}
+		}
+		String comment = null;
+		if (commentProperty != null) {
+			comment = findLiteralValue(property, commentProperty);
+			if (comment == null) {
+				comment = "";
+			}
+		}
+
+		return new FieldInfo(
+				name,
+				property.getAbbreviatedIri(),
+				kind,
+				property.isFunctional(),
+				ranges,
+				literals,
+				label,
+				comment);
+	}
+
+	private Set<Type> getMostSpecificPropertyRanges(Entity entity, SemanticProperty property) {
+		var ranges = OmlSearch.findAllSuperTerms(entity, true, scope).stream()
+				.map(j -> (Entity)j)
+				.flatMap(j -> OmlSearch.findPropertyRestrictionAxioms(j, scope).stream())
+				.filter(j -> j instanceof PropertyRangeRestrictionAxiom)
+				.map(j -> (PropertyRangeRestrictionAxiom)j)
+				.filter(j -> j.getProperty() == property)
+				.filter(j -> (j.getKind() == RangeRestrictionKind.ALL) || (j.getKind() == RangeRestrictionKind.SOME && j.getProperty().isFunctional()))
+				.map(j -> j.getRange())
+				.collect(Collectors.toSet());
+		if (ranges.size() == 0) {
+			ranges = OmlSearch.findRanges(property, scope).stream()
+				.map(j -> j)
+				.collect(Collectors.toSet());
+		}
+		return getMostSpecificTypes(ranges);
+	}
+
+	private Set<Type> getMostSpecificTypes(Set<Type> types) {
+		final var mostSpecificTypes = new HashSet<>(types);
+        for (var r : types) {
+        	mostSpecificTypes.removeAll(OmlSearch.findAllSuperTerms(r, false, scope));
+        }
+		return mostSpecificTypes.stream().flatMap(j -> OmlSearch.findAllSubTerms(j, true, scope).stream())
+			.filter(j -> j instanceof Type)
+			.map(j -> (Type)j)
+			.collect(Collectors.toSet());
+	}
+
+	private static List<String> toTags(Set<Type> types) {
+		return types.stream()
+			.map(r -> r.getOntology().getPrefix()+"/"+r.getName())
+			.distinct()
+			.sorted()
+			.toList();
+	}
+
+	private String findLiteralValue(IdentifiedElement element, AnnotationProperty property) {
+		return annotations.getLiteralValue(element, property);
+	}
+
+	private String findAnnotationValue(IdentifiedElement element, AnnotationProperty property) {
+		var value = annotations.getLiteralValue(element, property);
+		return (value != null) ? value : "";
+	}
+
+}
@@ -18,57 +18,29 @@
  */
 package io.opencaesar.oml2obsidian;
 
-import java.util.HashMap;
-import java.util.List;
-import java.util.Set;
-
-import org.eclipse.emf.ecore.resource.Resource;
-import org.eclipse.emf.ecore.resource.ResourceSet;
-
-import io.opencaesar.oml.Aspect;
-import io.opencaesar.oml.Entity;
-import io.opencaesar.oml.Property;
-import io.opencaesar.oml.RelationEntity;
-import io.opencaesar.oml.SemanticProperty;
-import io.opencaesar.oml.util.OmlRead;
-
-class Oml2Template {
+class Oml2Template implements NoteGenerator {
 	
-	final ResourceSet inputResourceSet;
-	final Aspect thingAspect;
-
-	public Oml2Template(ResourceSet inputResourceSet) {
-		this.inputResourceSet = inputResourceSet;
-		this.thingAspect = (Aspect) OmlRead.getMemberByIri(inputResourceSet, "http://www.w3.org/2002/07/owl#Thing");
+	public Oml2Template() {
 	}
 	
-	public String generateFrontMatter(Entity entity, List<SemanticProperty> properties, Set<Resource> scope) {
+	@Override
+	public String generateFrontMatter(EntityInfo entity) {
 		var s = new StringBuffer();
 		s.append("---\n");
 		s.append("tags:\n");
-		s.append("  - "+entity.getOntology().getPrefix() + "/" + entity.getName()+"\n");
+		s.append("  - "+entity.getTag()+"\n");
 				
 		// write property fields
-        var seen = new HashMap<String, Property>();
-		for (var property: properties) {
-			var name = property.getName();
-			if (!seen.containsKey(name)) {
-				seen.put(name, property);
-				var functional = property.isFunctional();
-				if (functional) {
-					s.append(name+":\n");
-				} else {
-					s.append(name+": []\n");
-				}
+		for (var field: entity.fields()) {
+			if (field.functional()) {
+				s.append(field.name()+":\n");
 			} else {
-				throw new RuntimeException("Property "+seen.get(name).getAbbreviatedIri()
-						+" has the same name as "+property.getAbbreviatedIri()
-						+" in the context of entity "+entity.getAbbreviatedIri());
+				s.append(field.name()+": []\n");
 			}
 		}
 
 		// write relation entity source and target
-		if (entity instanceof RelationEntity) {
+		if (entity.relationEntity()) {
 			s.append("hasSource: []\n");
 			s.append("hasTarget: []\n");
 		}
@@ -77,7 +49,8 @@ class Oml2Template {
 		return s.toString();
 	}
 
-	public String generateBody(Entity entity, List<SemanticProperty> properties, Set<Resource> scope) {
+	@Override
+	public String generateBody(EntityInfo entity) {
 		var s = new StringBuffer();
 		s.append("```dataview\n"
 				+ "TABLE WITHOUT ID tags as \"**<big>Tags</big>**\"\n"
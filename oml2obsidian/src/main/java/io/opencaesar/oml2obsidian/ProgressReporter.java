@@ -0,0 +1,121 @@
+/**
+ * 
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package io.opencaesar.oml2obsidian;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Reports the progress of a long running loop (throughput and ETA) every so many items
+ * or seconds, instead of logging a line per item.
+ */
+class ProgressReporter {
+
+	private static final int DEFAULT_ITEMS = 1000;
+	private static final long DEFAULT_MILLIS = 5000;
+
+	private final Logger logger;
+	private final String action;
+	private final int total;
+	private final int everyItems;
+	private final long everyMillis;
+	private final long start;
+	private long last;
+	private int count;
+
+	/**
+	 * Creates a new ProgressReporter object that reports every 1000 items or 5 seconds
+	 * 
+	 * @param logger the logger to report to
+	 * @param action the action being performed (e.g., "Writing")
+	 * @param total the total number of items (0 when unknown)
+	 */
+	public ProgressReporter(Logger logger, String action, int total) {
+		this(logger, action, total, DEFAULT_ITEMS, DEFAULT_MILLIS);
+	}
+
+	/**
+	 * Creates a new ProgressReporter object
+	 * 
+	 * @param logger the logger to report to
+	 * @param action the action being performed (e.g., "Writing")
+	 * @param total the total number of items (0 when unknown)
+	 * @param everyItems the number of items between reports
+	 * @param everyMillis the number of milliseconds between reports
+	 */
+	public ProgressReporter(Logger logger, String action, int total, int everyItems, long everyMillis) {
+		this.logger = logger;
+		this.action = action;
+		this.total = total;
+		this.everyItems = everyItems;
+		this.everyMillis = everyMillis;
+		this.start = System.currentTimeMillis();
+		this.last = start;
+	}
+
+	/**
+	 * Records that one more item is done, and reports the progress if it is due
+	 */
+	public void step() {
+		count++;
+		if (!logger.isInfoEnabled()) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		if (count % everyItems == 0 || now - last >= everyMillis) {
+			last = now;
+			double rate = rate(now);
+			var message = new StringBuilder();
+			message.append(action+": "+count+(total > 0 ? "/"+total : "")+String.format(" (%.1f/s", rate));
+			if (rate > 0 && count < total) {
+				message.append(", ETA "+format((long)((total - count) / rate * 1000)));
+			}
+			message.append(")");
+			logger.info(message.toString());
+		}
+	}
+
+	/**
+	 * @return the number of items done so far
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * @return a summary of the number of items done, the elapsed time and the throughput
+	 */
+	public String getSummary() {
+		long now = System.currentTimeMillis();
+		return count+" in "+format(now - start)+String.format(" (%.1f/s)", rate(now));
+	}
+
+	private double rate(long now) {
+		long elapsed = Math.max(1, now - start);
+		return count * 1000.0 / elapsed;
+	}
+
+	private static String format(long millis) {
+		long seconds = millis / 1000;
+		if (seconds < 60) {
+			return String.format("%.1fs", millis / 1000.0);
+		}
+		return String.format("%dm%02ds", seconds / 60, seconds % 60);
+	}
+
+}
@@ -0,0 +1,71 @@
+/**
+ * 
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package io.opencaesar.oml2obsidian;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+
+/**
+ * A deterministic partition of the entities (by a hash of their iris) into a number of shards,
+ * such that separate processes can each generate the notes of one shard without conflicts
+ *
+ * @param index the (1-based) index of this shard
+ * @param count the total number of shards
+ */
+record Shard(int index, int count) {
+
+	/**
+	 * Parses a shard in the form 'i/n' where 1 &lt;= i &lt;= n
+	 * 
+	 * @param value the shard string
+	 * @return the parsed shard
+	 */
+	static Shard parse(String value) {
+		var parts = value.split("/");
+		if (parts.length == 2) {
+			try {
+				int index = Integer.parseInt(parts[0].strip());
+				int count = Integer.parseInt(parts[1].strip());
+				if (count >= 1 && index >= 1 && index <= count) {
+					return new Shard(index, count);
+				}
+			} catch (NumberFormatException e) {
+				// fall through
+			}
+		}
+		throw new IllegalArgumentException("'"+value+"' is not a valid shard (expected i/n with 1 <= i <= n)");
+	}
+
+	/**
+	 * Returns whether the element with the given iri belongs to this shard
+	 * 
+	 * @param iri the iri of the element
+	 * @return true if the element belongs to this shard
+	 */
+	boolean contains(String iri) {
+		var crc = new CRC32();
+		crc.update(iri.getBytes(StandardCharsets.UTF_8));
+		return crc.getValue() % count == index - 1;
+	}
+
+	@Override
+	public String toString() {
+		return index+"/"+count;
+	}
+}
@@ -0,0 +1,71 @@
+/**
+ * 
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package io.opencaesar.oml2obsidian;
+
+/**
+ * A note generator that renders a user-supplied {@link NoteTemplate} (containing both the
+ * front matter and the body of the note) against the precomputed model of each entity
+ */
+class TemplateNoteGenerator implements NoteGenerator {
+
+	private final NoteTemplate template;
+	private final NoteModels models;
+	private EntityInfo lastEntity;
+	private String lastFrontMatter;
+	private String lastBody;
+
+	/**
+	 * Creates a new TemplateNoteGenerator object
+	 * 
+	 * @param template the compiled note template
+	 * @param models the entity models
+	 */
+	public TemplateNoteGenerator(NoteTemplate template, NoteModels models) {
+		this.template = template;
+		this.models = models;
+	}
+
+	@Override
+	public String generateFrontMatter(EntityInfo entity) {
+		render(entity);
+		return lastFrontMatter;
+	}
+
+	@Override
+	public String generateBody(EntityInfo entity) {
+		render(entity);
+		return lastBody;
+	}
+
+	private void render(EntityInfo entity) {
+		if (entity != lastEntity) {
+			var note = template.render(models.get(entity));
+			int length = Oml2ObsidianApp.getFrontMatterLength(note);
+			if (length > 0) {
+				lastFrontMatter = note.substring(0, length);
+				lastBody = note.substring(length);
+			} else {
+				lastFrontMatter = "";
+				lastBody = note;
+			}
+			lastEntity = entity;
+		}
+	}
+
+}
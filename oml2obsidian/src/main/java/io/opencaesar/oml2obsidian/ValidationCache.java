@@ -0,0 +1,156 @@
+/**
+ * 
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package io.opencaesar.oml2obsidian;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+
+import io.opencaesar.oml.Ontology;
+import io.opencaesar.oml.util.OmlRead;
+import io.opencaesar.oml.validate.OmlValidator;
+
+/**
+ * A content-addressed cache of validation results on disk. The key of a resource is a hash of
+ * the validator version, the resource URI, the resource content and the contents of its import
+ * closure, so a resource is only validated again when one of them changes.
+ */
+class ValidationCache {
+
+	private final File folder;
+	private final String version;
+	private final Map<URI, String> contentHashes = new HashMap<>();
+	private int hits;
+
+	/**
+	 * Creates a new ValidationCache object
+	 * 
+	 * @param folder the folder where the results are cached
+	 */
+	public ValidationCache(File folder) {
+		this.folder = folder;
+		this.version = getVersion(OmlValidator.class) + "/" + getVersion(Ontology.class);
+	}
+
+	/**
+	 * Returns the validation results of the given resource, from the cache if they are there or
+	 * else by invoking the given validator and caching its results.
+	 * 
+	 * @param resource the resource to validate
+	 * @param validator the validator to invoke on a cache miss
+	 * @return the validation results (empty if there are no problems)
+	 * @throws IOException if the cache cannot be read or written
+	 */
+	public String validate(Resource resource, Function<Resource, String> validator) throws IOException {
+		var key = getKey(resource);
+		if (key == null) {
+			return validator.apply(resource);
+		}
+		var file = new File(folder, key + ".txt");
+		if (file.isFile()) {
+			hits++;
+			return Files.readString(file.toPath(), StandardCharsets.UTF_8);
+		}
+		var results = validator.apply(resource);
+		folder.mkdirs();
+		var temp = File.createTempFile(key, ".tmp", folder);
+		Files.writeString(temp.toPath(), results, StandardCharsets.UTF_8);
+		Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		return results;
+	}
+
+	/**
+	 * @return the number of results that were found in the cache
+	 */
+	public int getHits() {
+		return hits;
+	}
+
+	private String getKey(Resource resource) throws IOException {
+		var ontology = OmlRead.getOntology(resource);
+		var resourceHash = getContentHash(resource.getURI());
+		if (ontology == null || resourceHash == null) {
+			return null;
+		}
+		var digest = newDigest();
+		digest.update(version.getBytes(StandardCharsets.UTF_8));
+		digest.update(resource.getURI().toString().getBytes(StandardCharsets.UTF_8));
+		digest.update(resourceHash.getBytes(StandardCharsets.UTF_8));
+		var closure = OmlRead.getImportedOntologyClosure(ontology, false).stream()
+				.map(i -> i.eResource().getURI())
+				.sorted(Comparator.comparing(URI::toString))
+				.toList();
+		for (var uri : closure) {
+			var hash = getContentHash(uri);
+			if (hash == null) {
+				return null;
+			}
+			digest.update(uri.toString().getBytes(StandardCharsets.UTF_8));
+			digest.update(hash.getBytes(StandardCharsets.UTF_8));
+		}
+		return HexFormat.of().formatHex(digest.digest());
+	}
+
+	private String getContentHash(URI uri) throws IOException {
+		if (!uri.isFile()) {
+			return null;
+		}
+		var hash = contentHashes.get(uri);
+		if (hash == null) {
+			var file = new File(uri.toFileString());
+			if (!file.isFile()) {
+				return null;
+			}
+			hash = HexFormat.of().formatHex(newDigest().digest(Files.readAllBytes(file.toPath())));
+			contentHashes.put(uri, hash);
+		}
+		return hash;
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static String getVersion(Class<?> type) {
+		var version = type.getPackage().getImplementationVersion();
+		if (version == null) {
+			// fall back on the name of the jar, which normally includes the version
+			var source = type.getProtectionDomain().getCodeSource();
+			version = (source != null) ? source.getLocation().getPath() : "<unknown>";
+		}
+		return version;
+	}
+
+}
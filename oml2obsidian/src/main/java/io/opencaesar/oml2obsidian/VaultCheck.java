@@ -0,0 +1,116 @@
+/**
+ * 
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package io.opencaesar.oml2obsidian;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Compares generated notes with the notes on disk without writing anything, and
+ * summarizes the drift (missing notes and notes whose front matter is out of date).
+ */
+class VaultCheck {
+
+	private final List<String> drifts = new ArrayList<>();
+	private int checked;
+	private int missing;
+	private int outdated;
+
+	/**
+	 * Creates a new VaultCheck object
+	 */
+	public VaultCheck() {
+	}
+
+	/**
+	 * Checks the given note against its generated front matter
+	 * 
+	 * @param file the note file
+	 * @param frontMatter the generated front matter
+	 * @throws IOException if the note cannot be read
+	 */
+	public void check(File file, String frontMatter) throws IOException {
+		checked++;
+		if (!file.exists()) {
+			missing++;
+			drifts.add("+ "+file.getPath()+" (missing)");
+			return;
+		}
+		var markdown = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+		var existing = extractFrontMatter(markdown);
+		var generated = normalize(frontMatter);
+		if (!Arrays.equals(hash(existing), hash(generated))) {
+			outdated++;
+			var existingLines = new HashSet<>(existing.lines().toList());
+			var generatedLines = new HashSet<>(generated.lines().toList());
+			long added = generated.lines().filter(i -> !existingLines.contains(i)).count();
+			long removed = existing.lines().filter(i -> !generatedLines.contains(i)).count();
+			drifts.add("~ "+file.getPath()+" (front matter "+shortHash(existing)+" -> "+shortHash(generated)+", +"+added+" -"+removed+" lines)");
+		}
+	}
+
+	/**
+	 * @return whether all checked notes are up to date
+	 */
+	public boolean isUpToDate() {
+		return drifts.isEmpty();
+	}
+
+	/**
+	 * @return a compact report of the drift, one line per drifted note followed by the totals
+	 */
+	public String getReport() {
+		var s = new StringBuilder();
+		for (var drift : drifts) {
+			s.append(drift).append("\n");
+		}
+		s.append(checked+" notes checked: "+(checked-missing-outdated)+" up to date, "+outdated+" out of date, "+missing+" missing");
+		return s.toString();
+	}
+
+	private static String extractFrontMatter(String markdown) {
+		return normalize(markdown.substring(0, Oml2ObsidianApp.getFrontMatterLength(markdown)));
+	}
+
+	private static String normalize(String text) {
+		return text.replace("\r\n", "\n").strip();
+	}
+
+	private static byte[] hash(String text) {
+		try {
+			return MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+		} catch (NoSuchAlgorithmException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	private static String shortHash(String text) {
+		return HexFormat.of().formatHex(hash(text)).substring(0, 8);
+	}
+
+}
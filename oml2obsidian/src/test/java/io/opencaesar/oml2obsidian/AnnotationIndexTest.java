@@ -0,0 +1,122 @@
+/**
+ * 
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package io.opencaesar.oml2obsidian;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import io.opencaesar.oml.AnnotationProperty;
+import io.opencaesar.oml.IdentifiedElement;
+import io.opencaesar.oml.Literal;
+import io.opencaesar.oml.dsl.OmlStandaloneSetup;
+import io.opencaesar.oml.util.OmlRead;
+import io.opencaesar.oml.util.OmlSearch;
+
+public class AnnotationIndexTest {
+
+	private static ResourceSet resourceSet;
+	private static AnnotationProperty label;
+	private static AnnotationProperty ignore;
+	private static AnnotationProperty hasIcon;
+
+	@BeforeClass
+	public static void load() {
+		OmlStandaloneSetup.doSetup();
+		resourceSet = new ResourceSetImpl();
+		for (var name : List.of("props", "z", "b", "c")) {
+			var url = AnnotationIndexTest.class.getResource("/annotations/example.com/"+name+".oml");
+			resourceSet.getResource(URI.createURI(url.toString()), true);
+		}
+		label = (AnnotationProperty) OmlRead.getMemberByIri(resourceSet, "http://example.com/props#label");
+		ignore = (AnnotationProperty) OmlRead.getMemberByIri(resourceSet, "http://example.com/props#ignore");
+		hasIcon = (AnnotationProperty) OmlRead.getMemberByIri(resourceSet, "http://example.com/props#hasIcon");
+	}
+
+	private static IdentifiedElement concept(String name) {
+		return OmlRead.getMemberByIri(resourceSet, "http://example.com/z#"+name);
+	}
+
+	private static Set<Resource> scope(boolean reversed) {
+		var resources = new ArrayList<>(resourceSet.getResources());
+		if (reversed) {
+			Collections.reverse(resources);
+		}
+		return new LinkedHashSet<>(resources);
+	}
+
+	@Test
+	public void testOwnValueBeatsReferenceValue() {
+		for (var reversed : List.of(false, true)) {
+			var index = new AnnotationIndex(scope(reversed), label);
+			assertEquals("own", index.getLiteralValue(concept("A"), label));
+		}
+	}
+
+	@Test
+	public void testForeignValuesArePickedByResourceUri() {
+		for (var reversed : List.of(false, true)) {
+			var index = new AnnotationIndex(scope(reversed), label);
+			assertEquals("from b", index.getLiteralValue(concept("B"), label));
+			assertNull(index.getLiteralValue(concept("C"), label));
+		}
+	}
+
+	@Test
+	public void testValueWithoutLiteralDoesNotHideOtherValues() {
+		var index = new AnnotationIndex(scope(false), hasIcon);
+		assertEquals("lucide-bot", index.getLiteralValue(concept("D"), hasIcon));
+	}
+
+	@Test
+	public void testUnindexedPropertyIsNotFound() {
+		var index = new AnnotationIndex(scope(false), label, null);
+		assertEquals(false, index.isAnnotatedBy(concept("C"), ignore));
+		assertNull(index.getLiteralValue(concept("C"), hasIcon));
+	}
+
+	@Test
+	public void testMatchesSearch() {
+		var scope = scope(false);
+		var index = new AnnotationIndex(scope, ignore, hasIcon);
+		for (var name : List.of("A", "B", "C", "D", "E")) {
+			var concept = concept(name);
+			assertEquals(name, OmlSearch.findIsAnnotatedBy(concept, ignore, scope), index.isAnnotatedBy(concept, ignore));
+			var icon = OmlSearch.findAnnotationValues(concept, hasIcon, scope).stream()
+					.filter(i -> i instanceof Literal)
+					.map(i -> ((Literal) i).getStringValue())
+					.findFirst()
+					.orElse(null);
+			assertEquals(name, icon, index.getLiteralValue(concept, hasIcon));
+		}
+	}
+
+}
@@ -0,0 +1,137 @@
+/**
+ * 
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package io.opencaesar.oml2obsidian;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class NoteTemplateTest {
+
+	private static String render(String template, Map<String, Object> model) {
+		return NoteTemplate.compile(template).render(model);
+	}
+
+	private static Map<String, Object> model(Object... keyValues) {
+		var model = new LinkedHashMap<String, Object>();
+		for (int i = 0; i < keyValues.length; i += 2) {
+			model.put((String) keyValues[i], keyValues[i + 1]);
+		}
+		return model;
+	}
+
+	@Test
+	public void testVariables() {
+		assertEquals("a A and ", render("a {{name}} and {{missing}}", model("name", "A")));
+		assertEquals("1 true", render("{{ count }} {{flag}}", model("count", 1, "flag", true)));
+	}
+
+	@Test
+	public void testValuesAreNotEscaped() {
+		assertEquals("<b>&\"</b>", render("{{v}}", model("v", "<b>&\"</b>")));
+	}
+
+	@Test
+	public void testSectionOverList() {
+		var fields = List.<Object>of(model("name", "a"), model("name", "b"));
+		assertEquals("a,b,", render("{{#fields}}{{name}},{{/fields}}", model("fields", fields)));
+		assertEquals("x;y;", render("{{#items}}{{.}};{{/items}}", model("items", List.of("x", "y"))));
+	}
+
+	@Test
+	public void testSectionOverMapAndBoolean() {
+		assertEquals("B", render("{{#inner}}{{name}}{{/inner}}", model("inner", model("name", "B"))));
+		assertEquals("yes", render("{{#flag}}yes{{/flag}}", model("flag", true)));
+		assertEquals("", render("{{#flag}}yes{{/flag}}", model("flag", false)));
+		assertEquals("", render("{{#text}}yes{{/text}}", model("text", "")));
+	}
+
+	@Test
+	public void testInvertedSection() {
+		assertEquals("none", render("{{^items}}none{{/items}}", model("items", List.of())));
+		assertEquals("none", render("{{^items}}none{{/items}}", model()));
+		assertEquals("", render("{{^items}}none{{/items}}", model("items", List.of("x"))));
+		assertEquals("no", render("{{^flag}}no{{/flag}}", model("flag", false)));
+	}
+
+	@Test
+	public void testLookupFallsBackToOuterContext() {
+		var items = List.<Object>of(model("name", "a"), model("name", "b"));
+		assertEquals("p/a p/b ", render("{{#items}}{{prefix}}/{{name}} {{/items}}", model("prefix", "p", "items", items)));
+	}
+
+	@Test
+	public void testNestedSections() {
+		var fields = List.<Object>of(
+				model("name", "a", "options", List.of(model("value", "1"), model("value", "2"))),
+				model("name", "b", "options", List.of()));
+		var template = "{{#fields}}{{name}}:{{#options}} {{value}}{{/options}}{{^options}} -{{/options}}\n{{/fields}}";
+		assertEquals("a: 1 2\nb: -\n", render(template, model("fields", fields)));
+	}
+
+	@Test
+	public void testStandaloneTagsDoNotLeaveBlankLines() {
+		var template = "---\n{{! a comment }}\ntags:\n{{#tags}}\n  - {{.}}\n{{/tags}}\n---\n";
+		assertEquals("---\ntags:\n  - a\n  - b\n---\n", render(template, model("tags", List.of("a", "b"))));
+	}
+
+	@Test
+	public void testStandaloneTagsWithIndentationAndCrlf() {
+		var template = "a\r\n  {{#flag}}  \r\nb\r\n\t{{/flag}}\r\nc";
+		assertEquals("a\r\nb\r\nc", render(template, model("flag", true)));
+	}
+
+	@Test
+	public void testInlineSectionTagsKeepTheirLine() {
+		assertEquals("x: y\n", render("x: {{#flag}}y{{/flag}}\n", model("flag", true)));
+		assertEquals("x: \n", render("x: {{#flag}}y{{/flag}}\n", model("flag", false)));
+	}
+
+	@Test
+	public void testUnclosedTag() {
+		assertInvalid("a\n{{name", "unclosed tag at line 2");
+	}
+
+	@Test
+	public void testUnclosedSection() {
+		assertInvalid("{{#items}}x", "unclosed section {{#items}}");
+	}
+
+	@Test
+	public void testMismatchedSection() {
+		assertInvalid("{{#a}}\n{{#b}}\n{{/a}}\n{{/b}}", "unexpected {{/a}} at line 3");
+		assertInvalid("{{/a}}", "unexpected {{/a}} at line 1");
+	}
+
+	private static void assertInvalid(String template, String message) {
+		try {
+			NoteTemplate.compile(template);
+			fail("expected the template to be invalid: "+template);
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage(), e.getMessage().contains(message));
+		}
+	}
+
+}
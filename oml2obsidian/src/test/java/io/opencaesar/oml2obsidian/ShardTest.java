@@ -0,0 +1,75 @@
+/**
+ * 
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package io.opencaesar.oml2obsidian;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+public class ShardTest {
+
+	@Test
+	public void testParse() {
+		assertEquals(new Shard(1, 1), Shard.parse("1/1"));
+		assertEquals(new Shard(2, 4), Shard.parse(" 2 / 4 "));
+		assertEquals("3/8", Shard.parse("3/8").toString());
+	}
+
+	@Test
+	public void testParseInvalid() {
+		for (var value : new String[] {"", "1", "0/2", "3/2", "1/0", "-1/2", "a/b", "1/2/3", "1/"}) {
+			try {
+				Shard.parse(value);
+				fail("expected '"+value+"' to be invalid");
+			} catch (IllegalArgumentException e) {
+				assertEquals("'"+value+"' is not a valid shard (expected i/n with 1 <= i <= n)", e.getMessage());
+			}
+		}
+	}
+
+	@Test
+	public void testShardsPartitionIris() {
+		int count = 3;
+		var shards = IntStream.rangeClosed(1, count).mapToObj(i -> new Shard(i, count)).toList();
+		int[] sizes = new int[count];
+		for (int i = 0; i < 300; i++) {
+			var iri = "http://example.com/vocabulary#Entity"+i;
+			var owners = shards.stream().filter(s -> s.contains(iri)).toList();
+			assertEquals(iri, 1, owners.size());
+			assertEquals(iri, owners.get(0), Shard.parse(owners.get(0).toString()));
+			sizes[owners.get(0).index() - 1]++;
+		}
+		for (int size : sizes) {
+			assertTrue(size > 0);
+		}
+	}
+
+	@Test
+	public void testContainsIsStable() {
+		var shard = new Shard(2, 5);
+		var iri = "http://example.com/vocabulary#A";
+		assertEquals(shard.contains(iri), new Shard(2, 5).contains(iri));
+		assertTrue(new Shard(1, 1).contains(iri));
+	}
+
+}
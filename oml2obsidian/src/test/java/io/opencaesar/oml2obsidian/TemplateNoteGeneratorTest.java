@@ -0,0 +1,66 @@
+/**
+ * 
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package io.opencaesar.oml2obsidian;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import org.junit.Test;
+
+public class TemplateNoteGeneratorTest {
+
+	private static final EntityInfo ENTITY = new EntityInfo("http://example.com/v#A", "v:A", "v", "A",
+			null, null, "", false, false, List.of(), List.of(), List.of());
+
+	private static TemplateNoteGenerator generator(String template) {
+		return new TemplateNoteGenerator(NoteTemplate.compile(template), new NoteModels("metadata"));
+	}
+
+	@Test
+	public void testSplitsFrontMatterFromBody() {
+		var generator = generator("---\ntags:\n  - {{tag}}\n---\n# {{name}}\n");
+		assertEquals("---\ntags:\n  - v/A\n---\n", generator.generateFrontMatter(ENTITY));
+		assertEquals("# A\n", generator.generateBody(ENTITY));
+	}
+
+	@Test
+	public void testKeepsRulesInTheBody() {
+		var generator = generator("---\nx: 1\n---\ntext\n---\nmore\n---\n");
+		assertEquals("---\nx: 1\n---\n", generator.generateFrontMatter(ENTITY));
+		assertEquals("text\n---\nmore\n---\n", generator.generateBody(ENTITY));
+	}
+
+	@Test
+	public void testTemplateWithoutFrontMatter() {
+		var generator = generator("# {{name}}\n---\nsome text\n---\nmore");
+		assertEquals("", generator.generateFrontMatter(ENTITY));
+		assertEquals("# A\n---\nsome text\n---\nmore", generator.generateBody(ENTITY));
+	}
+
+	@Test
+	public void testExtractContentAfterFrontMatter() {
+		assertEquals("body\n---\nrule", Oml2ObsidianApp.extractContentAfterFrontMatter("---\nx: 1\n---\n\nbody\n---\nrule\n"));
+		assertEquals("", Oml2ObsidianApp.extractContentAfterFrontMatter("---\n---\n"));
+		assertEquals("b", Oml2ObsidianApp.extractContentAfterFrontMatter("---  \r\nx: 1\r\n---\r\nb"));
+		assertEquals("text\n---\nx\n---\n", Oml2ObsidianApp.extractContentAfterFrontMatter("text\n---\nx\n---\n"));
+		assertEquals("---\nunterminated", Oml2ObsidianApp.extractContentAfterFrontMatter("---\nunterminated"));
+	}
+
+}
@@ -0,0 +1,94 @@
+/**
+ * 
+ * Copyright 2019-2021 California Institute of Technology ("Caltech").
+ * U.S. Government sponsorship acknowledged.
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package io.opencaesar.oml2obsidian;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class VaultCheckTest {
+
+	private static final String FRONT_MATTER = "---\ntags:\n  - v/A\n---\n";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File note(String name, String content) throws IOException {
+		var file = new File(folder.getRoot(), name);
+		Files.writeString(file.toPath(), content, StandardCharsets.UTF_8);
+		return file;
+	}
+
+	@Test
+	public void testUpToDate() throws IOException {
+		var check = new VaultCheck();
+		check.check(note("A.md", FRONT_MATTER+"\nhand written body\n"), FRONT_MATTER);
+		check.check(note("B.md", FRONT_MATTER.replace("\n", "\r\n")), FRONT_MATTER);
+		assertTrue(check.isUpToDate());
+		assertEquals("2 notes checked: 2 up to date, 0 out of date, 0 missing", check.getReport());
+	}
+
+	@Test
+	public void testMissing() throws IOException {
+		var check = new VaultCheck();
+		var file = new File(folder.getRoot(), "A.md");
+		check.check(file, FRONT_MATTER);
+		assertFalse(check.isUpToDate());
+		assertEquals("+ "+file.getPath()+" (missing)\n"
+				+ "1 notes checked: 0 up to date, 0 out of date, 1 missing", check.getReport());
+	}
+
+	@Test
+	public void testOutdated() throws IOException {
+		var check = new VaultCheck();
+		var file = note("A.md", "---\ntags:\n  - v/B\n---\nbody\n");
+		check.check(file, FRONT_MATTER);
+		assertFalse(check.isUpToDate());
+		var lines = check.getReport().split("\n");
+		assertEquals(2, lines.length);
+		assertTrue(lines[0], lines[0].startsWith("~ "+file.getPath()+" (front matter "));
+		assertTrue(lines[0], lines[0].endsWith(", +1 -1 lines)"));
+		assertEquals("1 notes checked: 0 up to date, 1 out of date, 0 missing", lines[1]);
+	}
+
+	@Test
+	public void testBodyIsIgnored() throws IOException {
+		var check = new VaultCheck();
+		check.check(note("A.md", FRONT_MATTER+"---\ntags:\n  - v/B\n---\n"), FRONT_MATTER);
+		assertTrue(check.isUpToDate());
+	}
+
+	@Test
+	public void testNoteWithoutFrontMatterIsOutdated() throws IOException {
+		var check = new VaultCheck();
+		check.check(note("A.md", "# A\n"+FRONT_MATTER), FRONT_MATTER);
+		assertFalse(check.isUpToDate());
+		assertTrue(check.getReport().endsWith("0 up to date, 1 out of date, 0 missing"));
+	}
+
+}